@@ -0,0 +1,88 @@
+--
+-- Copyright (c) 2010-2023 Evolveum
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Change log read by the "changelog" sync strategy (syncStrategy = changelog).
+-- The sample uses the default table prefix "gr", replace it in case a different "tablePrefix" is configured.
+-- Requires PostgreSQL 11 or newer (EXECUTE FUNCTION). The role grouper_connector stands for the database user
+-- of the connector.
+
+-- object_class is "group" or "subject", object_id is the id_index or subject_id_index of the object.
+-- change_type "DELETE" marks the removal of the object row, any other value is a create or update.
+CREATE TABLE gr_mp_change_log (
+    sequence_number BIGSERIAL PRIMARY KEY,
+    object_class VARCHAR(16) NOT NULL,
+    object_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    created_on TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX gr_mp_change_log_class_idx ON gr_mp_change_log (object_class, sequence_number);
+
+GRANT SELECT ON gr_mp_change_log TO grouper_connector;
+
+-- Change of an object row, the arguments are the object class and the identifier column.
+CREATE OR REPLACE FUNCTION gr_mp_log_object_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO gr_mp_change_log (object_class, object_id, change_type)
+            VALUES (TG_ARGV[0], (to_jsonb(OLD) ->> TG_ARGV[1])::BIGINT, TG_OP);
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO gr_mp_change_log (object_class, object_id, change_type)
+        VALUES (TG_ARGV[0], (to_jsonb(NEW) ->> TG_ARGV[1])::BIGINT, TG_OP);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Change of a membership or an extension attribute row, an update of the referenced object, the arguments are
+-- the object class and the column referencing the object.
+CREATE OR REPLACE FUNCTION gr_mp_log_relation_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO gr_mp_change_log (object_class, object_id, change_type)
+            VALUES (TG_ARGV[0], (to_jsonb(OLD) ->> TG_ARGV[1])::BIGINT, 'UPDATE');
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO gr_mp_change_log (object_class, object_id, change_type)
+            VALUES (TG_ARGV[0], (to_jsonb(NEW) ->> TG_ARGV[1])::BIGINT, 'UPDATE');
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER gr_mp_groups_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_groups
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_object_change('group', 'id_index');
+
+CREATE TRIGGER gr_mp_subjects_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_subjects
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_object_change('subject', 'subject_id_index');
+
+CREATE TRIGGER gr_mp_memberships_group_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_memberships
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_relation_change('group', 'group_id_index');
+
+CREATE TRIGGER gr_mp_memberships_subject_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_memberships
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_relation_change('subject', 'subject_id_index');
+
+CREATE TRIGGER gr_mp_group_attributes_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_group_attributes
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_relation_change('group', 'group_id_index');
+
+CREATE TRIGGER gr_mp_subject_attributes_change_log AFTER INSERT OR UPDATE OR DELETE ON gr_mp_subject_attributes
+    FOR EACH ROW EXECUTE FUNCTION gr_mp_log_relation_change('subject', 'subject_id_index');
+
+-- The log only grows, entries older than the tokens of all the synchronization tasks can be removed, e.g.
+-- DELETE FROM gr_mp_change_log WHERE created_on < now() - INTERVAL '30 days';
@@ -0,0 +1,43 @@
+--
+-- Copyright (c) 2010-2023 Evolveum
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Change notifications listened to in case "changeNotificationChannel" is set, the sample uses the channel
+-- "grouper_changes" and the default table prefix "gr".
+-- Requires PostgreSQL 11 or newer (EXECUTE FUNCTION).
+
+-- The payload is the name of the changed table, the argument is the name of the channel. Notifications with the
+-- same payload sent in one transaction are delivered once, so a statement level trigger is sufficient.
+CREATE OR REPLACE FUNCTION gr_mp_notify_change() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify(TG_ARGV[0], TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER gr_mp_groups_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON gr_mp_groups
+    FOR EACH STATEMENT EXECUTE FUNCTION gr_mp_notify_change('grouper_changes');
+
+CREATE TRIGGER gr_mp_subjects_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON gr_mp_subjects
+    FOR EACH STATEMENT EXECUTE FUNCTION gr_mp_notify_change('grouper_changes');
+
+CREATE TRIGGER gr_mp_memberships_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON gr_mp_memberships
+    FOR EACH STATEMENT EXECUTE FUNCTION gr_mp_notify_change('grouper_changes');
+
+CREATE TRIGGER gr_mp_group_attributes_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON gr_mp_group_attributes
+    FOR EACH STATEMENT EXECUTE FUNCTION gr_mp_notify_change('grouper_changes');
+
+CREATE TRIGGER gr_mp_subject_attributes_notify AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON gr_mp_subject_attributes FOR EACH STATEMENT EXECUTE FUNCTION gr_mp_notify_change('grouper_changes');
@@ -0,0 +1,40 @@
+--
+-- Copyright (c) 2010-2023 Evolveum
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--     http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+-- Logical replication slot read by the "replication" sync strategy (syncStrategy = replication), the sample uses
+-- the slot "grouper_slot" set by "replicationSlotName" and the default table prefix "gr". The role
+-- grouper_connector stands for the database user of the connector.
+
+-- postgresql.conf, a restart of the server is needed:
+--   wal_level = logical
+--   max_replication_slots = 10
+--   max_wal_senders = 10
+-- pg_hba.conf has to allow the replication connections of the connector user, e.g.
+--   host replication grouper_connector 10.0.0.0/8 scram-sha-256
+
+ALTER ROLE grouper_connector WITH REPLICATION;
+
+-- The rows of the memberships and extension attributes are mapped to the objects by the referencing columns,
+-- which a deleted row carries only with the full replica identity. The object tables need the identifier column
+-- in their primary key (the default replica identity) or the full replica identity as well.
+ALTER TABLE gr_mp_memberships REPLICA IDENTITY FULL;
+ALTER TABLE gr_mp_group_attributes REPLICA IDENTITY FULL;
+ALTER TABLE gr_mp_subject_attributes REPLICA IDENTITY FULL;
+
+SELECT pg_create_logical_replication_slot('grouper_slot', 'test_decoding');
+
+-- The slot retains the log until the synchronization confirms it, a slot no longer used has to be dropped:
+-- SELECT pg_drop_replication_slot('grouper_slot');
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Listener of the change notifications sent by triggers of the connector tables on a PostgreSQL NOTIFY channel,
+ * e.g. "PERFORM pg_notify('channel', TG_TABLE_NAME)". The listener runs in a daemon thread on a dedicated
+ * connection, which is not a part of the connection pool.
+ * <p>
+ * Each notification increments a generation counter and records the generation as the last change of the table
+ * named by the payload (a notification without a known payload marks all the tables as changed). A finished
+ * synchronization records the generation taken before its queries, together with the sync token it ended with.
+ * A later synchronization from the same token needs no query in case none of its tables changed since then.
+ * While the listener is not connected, every table is evaluated as changed.
+ */
+public class GrouperChangeListener implements Runnable {
+    private static final Log LOG = Log.getLog(GrouperChangeListener.class);
+    private static final int POLL_TIMEOUT = 1000;
+    private static final long RECONNECT_DELAY = 5000;
+    private static final int MAX_SYNCHRONIZED_TOKENS = 256;
+
+    private final GrouperConnectionPool pool;
+    private final String channel;
+    private final Map<String, Long> tableGenerations = new HashMap<>();
+    private final Map<String, Long> synchronizedTokens = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_SYNCHRONIZED_TOKENS;
+        }
+    };
+    private long generation = 0;
+    private long allTablesGeneration = 0;
+    private boolean listening = false;
+    private volatile boolean stopped = false;
+    private Thread thread;
+
+    GrouperChangeListener(GrouperConnectionPool pool, String channel) {
+        this.pool = pool;
+        this.channel = channel;
+    }
+
+    void start() {
+        thread = new Thread(this, "grouper-change-listener-" + channel);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        stopped = true;
+
+        if (thread != null) {
+
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+
+        while (!stopped) {
+            Connection connection = null;
+
+            try {
+                connection = pool.open();
+
+                try (Statement statement = connection.createStatement()) {
+
+                    statement.execute("LISTEN " + channel);
+                }
+
+                LOG.ok("Listening for change notifications on the channel {0}", channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                synchronized (this) {
+                    // Changes preceding the LISTEN statement were not notified
+                    listening = true;
+                    allTablesGeneration = ++generation;
+                }
+
+                while (!stopped) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT);
+
+                    if (notifications != null) {
+
+                        changed(notifications);
+                    }
+                }
+            } catch (SQLException | ConnectorException e) {
+
+                LOG.warn("Exception while listening for change notifications on the channel {0}: {1}", channel,
+                        e.getLocalizedMessage());
+            } finally {
+
+                synchronized (this) {
+                    listening = false;
+                    allTablesGeneration = ++generation;
+                }
+
+                close(connection);
+            }
+
+            if (!stopped) {
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException e) {
+
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current generation, which is recorded by {@link #markSynchronized} after the synchronization
+     * which started at it finished. Has to be taken before the queries of the synchronization are executed.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Evaluates if the synchronization of the key from the sync token can be skipped, i.e. if the synchronization
+     * from the token finished while listening and no notification on the tables was received since then.
+     */
+    public synchronized boolean isSynchronized(String key, SyncToken syncToken, Collection<String> tables) {
+        Long synchronizedGeneration = synchronizedTokens.get(tokenKey(key, syncToken));
+
+        if (!listening || synchronizedGeneration == null || allTablesGeneration > synchronizedGeneration) {
+
+            return false;
+        }
+
+        for (String table : tables) {
+            Long tableGeneration = tableGenerations.get(table);
+
+            if (tableGeneration != null && tableGeneration > synchronizedGeneration) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public synchronized void markSynchronized(String key, SyncToken syncToken, long generation) {
+
+        if (listening && generation >= allTablesGeneration) {
+
+            synchronizedTokens.put(tokenKey(key, syncToken), generation);
+        }
+    }
+
+    private synchronized void changed(PGNotification[] notifications) {
+
+        for (PGNotification notification : notifications) {
+            String table = notification.getParameter();
+
+            generation++;
+
+            if (table == null || table.isEmpty()) {
+
+                allTablesGeneration = generation;
+            } else {
+
+                tableGenerations.put(table, generation);
+            }
+        }
+
+        LOG.ok("Received {0} change notifications, generation: {1}", notifications.length, generation);
+    }
+
+    private static String tokenKey(String key, SyncToken syncToken) {
+
+        return key + "|" + (syncToken != null ? syncToken.getValue() : null);
+    }
+
+    private void close(Connection connection) {
+
+        if (connection == null) {
+
+            return;
+        }
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+
+            LOG.warn("Exception while closing the change notification connection: {0}", e.getLocalizedMessage());
+        }
+    }
+}
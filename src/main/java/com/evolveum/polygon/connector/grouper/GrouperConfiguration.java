@@ -1,279 +1,632 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper;
-
-import org.identityconnectors.common.security.GuardedString;
-import org.identityconnectors.framework.common.exceptions.ConfigurationException;
-import org.identityconnectors.framework.spi.AbstractConfiguration;
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.framework.spi.ConfigurationProperty;
-import org.identityconnectors.framework.spi.StatefulConfiguration;
-
-import java.util.HashSet;
-
-public class GrouperConfiguration extends AbstractConfiguration implements StatefulConfiguration {
-
-    private static final Log LOG = Log.getLog(GrouperConfiguration.class);
-
-    private Integer connectionValidTimeout = 10;
-    private String databaseName;
-    private GuardedString password;
-    private String userName;
-    private String port = "5432";
-    private String host;
-    private String schema = "public";
-    private String tablePrefix = "gr";
-    private String[] extendedGroupProperties = {};
-    private String[] extendedSubjectProperties = {};
-    private String[] attrsToHaveInAllSearch = {};
-    private Boolean excludeDeletedObjects = true;
-    private Boolean enableIdBasedPaging = false;
-    private Integer maxPageSize;
-
-    @Override
-    public void validate() {
-        LOG.info("Execution of validate configuration method.");
-        String messagePart = "One or more mandatory parameters or a combination of parameters," +
-                " are not set or set not correct: ";
-        HashSet<String> parameters = new HashSet<>();
-
-
-        if (host != null && !host.isEmpty()) {
-        } else {
-            parameters.add("host");
-        }
-
-        if (databaseName != null && !databaseName.isEmpty()) {
-        } else {
-            parameters.add("databaseName");
-        }
-
-        if (password != null) {
-        } else {
-            parameters.add("password");
-        }
-
-        if (userName != null && !userName.isEmpty()) {
-        } else {
-            parameters.add("loginName");
-        }
-
-        if (connectionValidTimeout == 10) {
-
-            LOG.info("Connection validation timeout will be used with the value 10 seconds for connection" +
-                    "validation.");
-        }
-
-        if (excludeDeletedObjects == true) {
-
-            LOG.info("Deleted object 'rows' are excluded from object lookup and searches. Any object (or related row)" +
-                    "marked as 'deleted=T' will be omitted from the result set.");
-        }
-
-        if (maxPageSize != null && !enableIdBasedPaging) {
-
-            parameters.add("maxPageSize");
-            parameters.add("enableIdBasedPaging");
-        }
-
-        if (!parameters.isEmpty()) {
-
-            throw new ConfigurationException(messagePart + parameters);
-        }
-    }
-
-    @ConfigurationProperty(order = 2,
-            displayMessageKey = "host.display",
-            helpMessageKey = "host.help",
-            required = true)
-
-    public String getHost() {
-        return this.host;
-    }
-
-    public void setHost(String value) {
-        this.host = value;
-    }
-
-    @ConfigurationProperty(order = 3,
-            displayMessageKey = "port.display",
-            helpMessageKey = "port.help", required = true)
-    public String getPort() {
-        return this.port;
-    }
-
-    public void setPort(String value) {
-        this.port = value;
-    }
-
-
-    @ConfigurationProperty(order = 4,
-            displayMessageKey = "userName.display",
-            helpMessageKey = "userName.help",
-            required = true)
-    public String getUserName() {
-        return this.userName;
-    }
-
-    public void setUserName(String value) {
-        this.userName = value;
-    }
-
-    @ConfigurationProperty(order = 5, confidential = true,
-            displayMessageKey = "password.display",
-            helpMessageKey = "password.help",
-            required = true)
-    public GuardedString getPassword() {
-        return this.password;
-    }
-
-    public void setPassword(GuardedString value) {
-        this.password = value;
-    }
-
-
-    @ConfigurationProperty(order = 6,
-            displayMessageKey = "databaseName.display",
-            helpMessageKey = "databaseName.help",
-            required = true)
-    public String getDatabaseName() {
-        return databaseName;
-    }
-
-    public void setDatabaseName(String databaseName) {
-        this.databaseName = databaseName;
-    }
-
-    @ConfigurationProperty(order = 7,
-            displayMessageKey = "schema.display",
-            helpMessageKey = "schema.help",
-            required = true)
-    public String getSchema() {
-        return schema;
-    }
-
-    public void setSchema(String schema) {
-        this.schema = schema;
-    }
-
-    @ConfigurationProperty(order = 8,
-            displayMessageKey = "tablePrefix.display",
-            helpMessageKey = "tablePrefix.help",
-            required = true)
-    public String getTablePrefix() {
-        return tablePrefix;
-    }
-
-    public void setTablePrefix(String tablePrefix) {
-        this.tablePrefix = tablePrefix;
-    }
-
-    @ConfigurationProperty(order = 9,
-            displayMessageKey = "connectionValidTimeout.display",
-            helpMessageKey = "connectionValidTimeout.help")
-    public Integer getConnectionValidTimeout() {
-        return connectionValidTimeout;
-    }
-
-    public void setConnectionValidTimeout(Integer connectionValidTimeout) {
-        this.connectionValidTimeout = connectionValidTimeout;
-    }
-
-    @ConfigurationProperty(order = 10, displayMessageKey = "extendedGroupProperties.display",
-            helpMessageKey = "extendedGroupProperties.help")
-
-    public String[] getExtendedGroupProperties() {
-        return extendedGroupProperties;
-    }
-
-    public void setExtendedGroupProperties(String[] extendedGroupProperties) {
-        this.extendedGroupProperties = extendedGroupProperties;
-    }
-
-    @ConfigurationProperty(order = 11, displayMessageKey = "extendedSubjectProperties.display",
-            helpMessageKey = "extendedSubjectProperties.help")
-
-    public String[] getExtendedSubjectProperties() {
-        return extendedSubjectProperties;
-    }
-
-    public void setExtendedSubjectProperties(String[] extendedSubjectProperties) {
-        this.extendedSubjectProperties = extendedSubjectProperties;
-    }
-
-    @ConfigurationProperty(order = 12, displayMessageKey = "excludeDeletedObjects.display",
-            helpMessageKey = "excludeDeletedObjects.help")
-
-    public Boolean getExcludeDeletedObjects() {
-        return excludeDeletedObjects;
-    }
-
-    public void setExcludeDeletedObjects(Boolean excludeDeletedObjects) {
-        this.excludeDeletedObjects = excludeDeletedObjects;
-    }
-
-    @ConfigurationProperty(order = 13, displayMessageKey = "enableIdBasedPaging.display",
-            helpMessageKey = "enableIdBasedPaging.help")
-
-    public Boolean getEnableIdBasedPaging() {
-        return enableIdBasedPaging;
-    }
-
-    public void setEnableIdBasedPaging(Boolean enableIdBasedPaging) {
-        this.enableIdBasedPaging = enableIdBasedPaging;
-    }
-
-    @ConfigurationProperty(order = 14, displayMessageKey = "maxPageSize.display",
-            helpMessageKey = "maxPageSize.help")
-
-    public Integer getMaxPageSize() {
-        return maxPageSize;
-    }
-
-    public void setMaxPageSize(Integer maxPageSize) {
-        this.maxPageSize = maxPageSize;
-    }
-
-    @ConfigurationProperty(order = 15, displayMessageKey = "attrsToHaveInAllSearch.display",
-            helpMessageKey = "attrsToHaveInAllSearch.help")
-
-    public String[] getAttrsToHaveInAllSearch() {
-        return attrsToHaveInAllSearch;
-    }
-
-    public void setAttrsToHaveInAllSearch(String[] attrsToHaveInAllSearch) {
-        this.attrsToHaveInAllSearch = attrsToHaveInAllSearch;
-    }
-
-    @Override
-    public void release() {
-
-        connectionValidTimeout = null;
-        databaseName = null;
-        password.dispose();
-        userName = null;
-        port = null;
-        host = null;
-        schema = null;
-        tablePrefix = null;
-        extendedSubjectProperties = null;
-        extendedGroupProperties = null;
-        excludeDeletedObjects = true;
-        enableIdBasedPaging = false;
-        maxPageSize = null;
-    }
-}
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper;
+
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.exceptions.ConfigurationException;
+import org.identityconnectors.framework.spi.AbstractConfiguration;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.spi.ConfigurationProperty;
+import org.identityconnectors.framework.spi.StatefulConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class GrouperConfiguration extends AbstractConfiguration implements StatefulConfiguration {
+
+    private static final Log LOG = Log.getLog(GrouperConfiguration.class);
+    public static final String SYNC_STRATEGY_TIMESTAMP = "timestamp";
+    public static final String SYNC_STRATEGY_WATERMARK = "watermark";
+    public static final String SYNC_STRATEGY_CHANGE_LOG = "changelog";
+    public static final String SYNC_STRATEGY_REPLICATION = "replication";
+    // Pooled connection held by the search or synchronization itself
+    private static final int OPERATION_CONNECTIONS = 1;
+    // Pooled connection left for the other operations, while a search or synchronization borrows its additional
+    // connections
+    private static final int RESERVED_CONNECTIONS = 1;
+    // Read ahead connections of the parallel sync, one for each of the subject and group object classes
+    private static final int PARALLEL_SYNC_CONNECTIONS = 2;
+    private static final int PAGE_PREFETCH_CONNECTIONS = 1;
+
+    private Integer connectionValidTimeout = 10;
+    private String databaseName;
+    private GuardedString password;
+    private String userName;
+    private String port = "5432";
+    private String host;
+    private String schema = "public";
+    private String tablePrefix = "gr";
+    private String[] extendedGroupProperties = {};
+    private String[] extendedSubjectProperties = {};
+    private String[] attrsToHaveInAllSearch = {};
+    private Boolean excludeDeletedObjects = true;
+    private Boolean enableIdBasedPaging = false;
+    private Integer maxPageSize;
+    private Integer connectionPoolMinSize = 0;
+    private Integer connectionPoolMaxSize = 10;
+    private Integer connectionIdleTimeout = 300;
+    private Integer connectionMaxLifetime = 1800;
+    private Integer connectionAcquireTimeout = 30;
+    private Integer fetchSize;
+    private Boolean enableRelationAggregation = false;
+    private Boolean enableRowOrderEmission = false;
+    private String syncStrategy = SYNC_STRATEGY_TIMESTAMP;
+    private String changeNotificationChannel;
+    private String replicationSlotName;
+    private Boolean enableParallelSync = false;
+    private Integer syncCoalescingWindow;
+    private Integer targetPageLatency;
+    private Integer minPageSize = 10;
+    private Integer reconciliationParallelism;
+    private Boolean enableSnapshotReads = false;
+    private Boolean enablePagePrefetch = false;
+
+    @Override
+    public void validate() {
+        LOG.info("Execution of validate configuration method.");
+        String messagePart = "One or more mandatory parameters or a combination of parameters," +
+                " are not set or set not correct: ";
+        HashSet<String> parameters = new HashSet<>();
+        List<String> poolLimits = new ArrayList<>();
+
+
+        if (host != null && !host.isEmpty()) {
+        } else {
+            parameters.add("host");
+        }
+
+        if (databaseName != null && !databaseName.isEmpty()) {
+        } else {
+            parameters.add("databaseName");
+        }
+
+        if (password != null) {
+        } else {
+            parameters.add("password");
+        }
+
+        if (userName != null && !userName.isEmpty()) {
+        } else {
+            parameters.add("loginName");
+        }
+
+        if (connectionValidTimeout == 10) {
+
+            LOG.info("Connection validation timeout will be used with the value 10 seconds for connection" +
+                    "validation.");
+        }
+
+        if (excludeDeletedObjects == true) {
+
+            LOG.info("Deleted object 'rows' are excluded from object lookup and searches. Any object (or related row)" +
+                    "marked as 'deleted=T' will be omitted from the result set.");
+        }
+
+        if (connectionPoolMinSize == null || connectionPoolMinSize < 0) {
+
+            parameters.add("connectionPoolMinSize");
+        }
+
+        if (connectionPoolMaxSize == null || connectionPoolMaxSize < 1 ||
+                (connectionPoolMinSize != null && connectionPoolMinSize > connectionPoolMaxSize)) {
+
+            parameters.add("connectionPoolMaxSize");
+        }
+
+        if (connectionIdleTimeout == null || connectionIdleTimeout < 0) {
+
+            parameters.add("connectionIdleTimeout");
+        }
+
+        if (connectionMaxLifetime == null || connectionMaxLifetime < 0) {
+
+            parameters.add("connectionMaxLifetime");
+        }
+
+        if (connectionAcquireTimeout == null || connectionAcquireTimeout < 0) {
+
+            parameters.add("connectionAcquireTimeout");
+        }
+
+        if (fetchSize != null && fetchSize < 1) {
+
+            parameters.add("fetchSize");
+        }
+
+        if (syncStrategy == null || !(SYNC_STRATEGY_TIMESTAMP.equals(syncStrategy)
+                || SYNC_STRATEGY_WATERMARK.equals(syncStrategy) || SYNC_STRATEGY_CHANGE_LOG.equals(syncStrategy)
+                || SYNC_STRATEGY_REPLICATION.equals(syncStrategy))) {
+
+            parameters.add("syncStrategy");
+        }
+
+        if (SYNC_STRATEGY_REPLICATION.equals(syncStrategy) && (replicationSlotName == null
+                || !replicationSlotName.matches("[a-z0-9_]+"))) {
+
+            parameters.add("replicationSlotName");
+        }
+
+        if (syncCoalescingWindow != null && syncCoalescingWindow < 1) {
+
+            parameters.add("syncCoalescingWindow");
+        }
+
+        if (targetPageLatency != null && targetPageLatency < 1) {
+
+            parameters.add("targetPageLatency");
+        }
+
+        if (minPageSize == null || minPageSize < 1) {
+
+            parameters.add("minPageSize");
+        }
+
+        if (reconciliationParallelism != null && reconciliationParallelism < 1) {
+
+            parameters.add("reconciliationParallelism");
+        }
+
+        if (connectionPoolMaxSize != null) {
+
+            if (reconciliationParallelism != null && reconciliationParallelism > 1) {
+
+                checkPoolSize("reconciliationParallelism", reconciliationParallelism, parameters, poolLimits);
+            }
+
+            if (Boolean.TRUE.equals(enableParallelSync)) {
+
+                checkPoolSize("enableParallelSync", PARALLEL_SYNC_CONNECTIONS, parameters, poolLimits);
+            }
+
+            if (Boolean.TRUE.equals(enablePagePrefetch)) {
+
+                checkPoolSize("enablePagePrefetch", PAGE_PREFETCH_CONNECTIONS, parameters, poolLimits);
+            }
+        }
+
+        if (changeNotificationChannel != null && !changeNotificationChannel.matches("[a-z_][a-z0-9_]*")) {
+
+            parameters.add("changeNotificationChannel");
+        }
+
+        if (maxPageSize != null && !enableIdBasedPaging) {
+
+            parameters.add("maxPageSize");
+            parameters.add("enableIdBasedPaging");
+        }
+
+        if (!parameters.isEmpty()) {
+
+            throw new ConfigurationException(messagePart + parameters
+                    + (poolLimits.isEmpty() ? "" : ". " + String.join("; ", poolLimits)));
+        }
+    }
+
+    /**
+     * A search or synchronization borrows its additional connections besides the one it already holds, one
+     * more connection of the pool is left for the other operations.
+     */
+    private void checkPoolSize(String parameter, int additionalConnections, HashSet<String> parameters,
+                               List<String> poolLimits) {
+        int requiredPoolSize = OPERATION_CONNECTIONS + additionalConnections + RESERVED_CONNECTIONS;
+
+        if (requiredPoolSize > connectionPoolMaxSize) {
+
+            parameters.add(parameter);
+            poolLimits.add(parameter + " needs a connectionPoolMaxSize of at least " + requiredPoolSize
+                    + ", the connectionPoolMaxSize is " + connectionPoolMaxSize);
+        }
+    }
+
+    @ConfigurationProperty(order = 2,
+            displayMessageKey = "host.display",
+            helpMessageKey = "host.help",
+            required = true)
+
+    public String getHost() {
+        return this.host;
+    }
+
+    public void setHost(String value) {
+        this.host = value;
+    }
+
+    @ConfigurationProperty(order = 3,
+            displayMessageKey = "port.display",
+            helpMessageKey = "port.help", required = true)
+    public String getPort() {
+        return this.port;
+    }
+
+    public void setPort(String value) {
+        this.port = value;
+    }
+
+
+    @ConfigurationProperty(order = 4,
+            displayMessageKey = "userName.display",
+            helpMessageKey = "userName.help",
+            required = true)
+    public String getUserName() {
+        return this.userName;
+    }
+
+    public void setUserName(String value) {
+        this.userName = value;
+    }
+
+    @ConfigurationProperty(order = 5, confidential = true,
+            displayMessageKey = "password.display",
+            helpMessageKey = "password.help",
+            required = true)
+    public GuardedString getPassword() {
+        return this.password;
+    }
+
+    public void setPassword(GuardedString value) {
+        this.password = value;
+    }
+
+
+    @ConfigurationProperty(order = 6,
+            displayMessageKey = "databaseName.display",
+            helpMessageKey = "databaseName.help",
+            required = true)
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public void setDatabaseName(String databaseName) {
+        this.databaseName = databaseName;
+    }
+
+    @ConfigurationProperty(order = 7,
+            displayMessageKey = "schema.display",
+            helpMessageKey = "schema.help",
+            required = true)
+    public String getSchema() {
+        return schema;
+    }
+
+    public void setSchema(String schema) {
+        this.schema = schema;
+    }
+
+    @ConfigurationProperty(order = 8,
+            displayMessageKey = "tablePrefix.display",
+            helpMessageKey = "tablePrefix.help",
+            required = true)
+    public String getTablePrefix() {
+        return tablePrefix;
+    }
+
+    public void setTablePrefix(String tablePrefix) {
+        this.tablePrefix = tablePrefix;
+    }
+
+    @ConfigurationProperty(order = 9,
+            displayMessageKey = "connectionValidTimeout.display",
+            helpMessageKey = "connectionValidTimeout.help")
+    public Integer getConnectionValidTimeout() {
+        return connectionValidTimeout;
+    }
+
+    public void setConnectionValidTimeout(Integer connectionValidTimeout) {
+        this.connectionValidTimeout = connectionValidTimeout;
+    }
+
+    @ConfigurationProperty(order = 10, displayMessageKey = "extendedGroupProperties.display",
+            helpMessageKey = "extendedGroupProperties.help")
+
+    public String[] getExtendedGroupProperties() {
+        return extendedGroupProperties;
+    }
+
+    public void setExtendedGroupProperties(String[] extendedGroupProperties) {
+        this.extendedGroupProperties = extendedGroupProperties;
+    }
+
+    @ConfigurationProperty(order = 11, displayMessageKey = "extendedSubjectProperties.display",
+            helpMessageKey = "extendedSubjectProperties.help")
+
+    public String[] getExtendedSubjectProperties() {
+        return extendedSubjectProperties;
+    }
+
+    public void setExtendedSubjectProperties(String[] extendedSubjectProperties) {
+        this.extendedSubjectProperties = extendedSubjectProperties;
+    }
+
+    @ConfigurationProperty(order = 12, displayMessageKey = "excludeDeletedObjects.display",
+            helpMessageKey = "excludeDeletedObjects.help")
+
+    public Boolean getExcludeDeletedObjects() {
+        return excludeDeletedObjects;
+    }
+
+    public void setExcludeDeletedObjects(Boolean excludeDeletedObjects) {
+        this.excludeDeletedObjects = excludeDeletedObjects;
+    }
+
+    @ConfigurationProperty(order = 13, displayMessageKey = "enableIdBasedPaging.display",
+            helpMessageKey = "enableIdBasedPaging.help")
+
+    public Boolean getEnableIdBasedPaging() {
+        return enableIdBasedPaging;
+    }
+
+    public void setEnableIdBasedPaging(Boolean enableIdBasedPaging) {
+        this.enableIdBasedPaging = enableIdBasedPaging;
+    }
+
+    @ConfigurationProperty(order = 14, displayMessageKey = "maxPageSize.display",
+            helpMessageKey = "maxPageSize.help")
+
+    public Integer getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(Integer maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    @ConfigurationProperty(order = 15, displayMessageKey = "attrsToHaveInAllSearch.display",
+            helpMessageKey = "attrsToHaveInAllSearch.help")
+
+    public String[] getAttrsToHaveInAllSearch() {
+        return attrsToHaveInAllSearch;
+    }
+
+    public void setAttrsToHaveInAllSearch(String[] attrsToHaveInAllSearch) {
+        this.attrsToHaveInAllSearch = attrsToHaveInAllSearch;
+    }
+
+    @ConfigurationProperty(order = 16, displayMessageKey = "connectionPoolMinSize.display",
+            helpMessageKey = "connectionPoolMinSize.help")
+
+    public Integer getConnectionPoolMinSize() {
+        return connectionPoolMinSize;
+    }
+
+    public void setConnectionPoolMinSize(Integer connectionPoolMinSize) {
+        this.connectionPoolMinSize = connectionPoolMinSize;
+    }
+
+    @ConfigurationProperty(order = 17, displayMessageKey = "connectionPoolMaxSize.display",
+            helpMessageKey = "connectionPoolMaxSize.help")
+
+    public Integer getConnectionPoolMaxSize() {
+        return connectionPoolMaxSize;
+    }
+
+    public void setConnectionPoolMaxSize(Integer connectionPoolMaxSize) {
+        this.connectionPoolMaxSize = connectionPoolMaxSize;
+    }
+
+    @ConfigurationProperty(order = 18, displayMessageKey = "connectionIdleTimeout.display",
+            helpMessageKey = "connectionIdleTimeout.help")
+
+    public Integer getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
+    @ConfigurationProperty(order = 19, displayMessageKey = "connectionMaxLifetime.display",
+            helpMessageKey = "connectionMaxLifetime.help")
+
+    public Integer getConnectionMaxLifetime() {
+        return connectionMaxLifetime;
+    }
+
+    public void setConnectionMaxLifetime(Integer connectionMaxLifetime) {
+        this.connectionMaxLifetime = connectionMaxLifetime;
+    }
+
+    @ConfigurationProperty(order = 20, displayMessageKey = "connectionAcquireTimeout.display",
+            helpMessageKey = "connectionAcquireTimeout.help")
+
+    public Integer getConnectionAcquireTimeout() {
+        return connectionAcquireTimeout;
+    }
+
+    public void setConnectionAcquireTimeout(Integer connectionAcquireTimeout) {
+        this.connectionAcquireTimeout = connectionAcquireTimeout;
+    }
+
+    @ConfigurationProperty(order = 21, displayMessageKey = "fetchSize.display",
+            helpMessageKey = "fetchSize.help")
+
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @ConfigurationProperty(order = 22, displayMessageKey = "enableRelationAggregation.display",
+            helpMessageKey = "enableRelationAggregation.help")
+
+    public Boolean getEnableRelationAggregation() {
+        return enableRelationAggregation;
+    }
+
+    public void setEnableRelationAggregation(Boolean enableRelationAggregation) {
+        this.enableRelationAggregation = enableRelationAggregation;
+    }
+
+    @ConfigurationProperty(order = 23, displayMessageKey = "enableRowOrderEmission.display",
+            helpMessageKey = "enableRowOrderEmission.help")
+
+    public Boolean getEnableRowOrderEmission() {
+        return enableRowOrderEmission;
+    }
+
+    public void setEnableRowOrderEmission(Boolean enableRowOrderEmission) {
+        this.enableRowOrderEmission = enableRowOrderEmission;
+    }
+
+    @ConfigurationProperty(order = 24, displayMessageKey = "syncStrategy.display",
+            helpMessageKey = "syncStrategy.help")
+
+    public String getSyncStrategy() {
+        return syncStrategy;
+    }
+
+    public void setSyncStrategy(String syncStrategy) {
+        this.syncStrategy = syncStrategy;
+    }
+
+    @ConfigurationProperty(order = 25, displayMessageKey = "changeNotificationChannel.display",
+            helpMessageKey = "changeNotificationChannel.help")
+
+    public String getChangeNotificationChannel() {
+        return changeNotificationChannel;
+    }
+
+    public void setChangeNotificationChannel(String changeNotificationChannel) {
+        this.changeNotificationChannel = changeNotificationChannel;
+    }
+
+    @ConfigurationProperty(order = 26, displayMessageKey = "replicationSlotName.display",
+            helpMessageKey = "replicationSlotName.help")
+
+    public String getReplicationSlotName() {
+        return replicationSlotName;
+    }
+
+    public void setReplicationSlotName(String replicationSlotName) {
+        this.replicationSlotName = replicationSlotName;
+    }
+
+    @ConfigurationProperty(order = 27, displayMessageKey = "enableParallelSync.display",
+            helpMessageKey = "enableParallelSync.help")
+
+    public Boolean getEnableParallelSync() {
+        return enableParallelSync;
+    }
+
+    public void setEnableParallelSync(Boolean enableParallelSync) {
+        this.enableParallelSync = enableParallelSync;
+    }
+
+    @ConfigurationProperty(order = 28, displayMessageKey = "syncCoalescingWindow.display",
+            helpMessageKey = "syncCoalescingWindow.help")
+
+    public Integer getSyncCoalescingWindow() {
+        return syncCoalescingWindow;
+    }
+
+    public void setSyncCoalescingWindow(Integer syncCoalescingWindow) {
+        this.syncCoalescingWindow = syncCoalescingWindow;
+    }
+
+    @ConfigurationProperty(order = 29, displayMessageKey = "targetPageLatency.display",
+            helpMessageKey = "targetPageLatency.help")
+
+    public Integer getTargetPageLatency() {
+        return targetPageLatency;
+    }
+
+    public void setTargetPageLatency(Integer targetPageLatency) {
+        this.targetPageLatency = targetPageLatency;
+    }
+
+    @ConfigurationProperty(order = 30, displayMessageKey = "minPageSize.display",
+            helpMessageKey = "minPageSize.help")
+
+    public Integer getMinPageSize() {
+        return minPageSize;
+    }
+
+    public void setMinPageSize(Integer minPageSize) {
+        this.minPageSize = minPageSize;
+    }
+
+    @ConfigurationProperty(order = 31, displayMessageKey = "reconciliationParallelism.display",
+            helpMessageKey = "reconciliationParallelism.help")
+
+    public Integer getReconciliationParallelism() {
+        return reconciliationParallelism;
+    }
+
+    public void setReconciliationParallelism(Integer reconciliationParallelism) {
+        this.reconciliationParallelism = reconciliationParallelism;
+    }
+
+    @ConfigurationProperty(order = 32, displayMessageKey = "enableSnapshotReads.display",
+            helpMessageKey = "enableSnapshotReads.help")
+
+    public Boolean getEnableSnapshotReads() {
+        return enableSnapshotReads;
+    }
+
+    public void setEnableSnapshotReads(Boolean enableSnapshotReads) {
+        this.enableSnapshotReads = enableSnapshotReads;
+    }
+
+    @ConfigurationProperty(order = 33, displayMessageKey = "enablePagePrefetch.display",
+            helpMessageKey = "enablePagePrefetch.help")
+
+    public Boolean getEnablePagePrefetch() {
+        return enablePagePrefetch;
+    }
+
+    public void setEnablePagePrefetch(Boolean enablePagePrefetch) {
+        this.enablePagePrefetch = enablePagePrefetch;
+    }
+
+    @Override
+    public void release() {
+
+        connectionValidTimeout = null;
+        databaseName = null;
+        password.dispose();
+        userName = null;
+        port = null;
+        host = null;
+        schema = null;
+        tablePrefix = null;
+        extendedSubjectProperties = null;
+        extendedGroupProperties = null;
+        excludeDeletedObjects = true;
+        enableIdBasedPaging = false;
+        maxPageSize = null;
+        connectionPoolMinSize = 0;
+        connectionPoolMaxSize = 10;
+        connectionIdleTimeout = 300;
+        connectionMaxLifetime = 1800;
+        connectionAcquireTimeout = 30;
+        fetchSize = null;
+        enableRelationAggregation = false;
+        enableRowOrderEmission = false;
+        syncStrategy = SYNC_STRATEGY_TIMESTAMP;
+        changeNotificationChannel = null;
+        replicationSlotName = null;
+        enableParallelSync = false;
+        syncCoalescingWindow = null;
+        targetPageLatency = null;
+        minPageSize = 10;
+        reconciliationParallelism = null;
+        enableSnapshotReads = false;
+        enablePagePrefetch = false;
+    }
+}
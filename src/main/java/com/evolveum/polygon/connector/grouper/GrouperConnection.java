@@ -1,115 +1,278 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper;
-
-import com.evolveum.polygon.common.GuardedStringAccessor;
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.common.security.GuardedString;
-import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
-import org.identityconnectors.framework.common.exceptions.ConnectorException;
-import org.postgresql.ds.PGConnectionPoolDataSource;
-
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.sql.Statement;
-
-public class GrouperConnection {
-    private static final Log LOG = Log.getLog(GrouperConnection.class);
-
-    private GrouperConfiguration configuration;
-    private Connection connection;
-
-    public GrouperConnection(GrouperConfiguration configuration) {
-        this.configuration = configuration;
-
-        connection = initialize(configuration);
-    }
-
-    private static Connection initialize(GrouperConfiguration configuration) {
-        final PGConnectionPoolDataSource dataSource = new PGConnectionPoolDataSource();
-        Connection connection;
-        String host = configuration.getHost();
-        String databaseName = configuration.getDatabaseName();
-        String port = configuration.getPort();
-        dataSource.setPortNumbers(new int[]{Integer.parseInt(port)});
-        dataSource.setUser(configuration.getUserName());
-        dataSource.setServerNames(new String[]{host});
-        dataSource.setDatabaseName(databaseName);
-        dataSource.setCurrentSchema(configuration.getSchema());
-
-        GuardedString clientPassword = configuration.getPassword();
-        GuardedStringAccessor accessorSecret = new GuardedStringAccessor();
-        clientPassword.access(accessorSecret);
-
-        dataSource.setPassword(accessorSecret.getClearString());
-
-
-        try {
-            LOG.ok("About to acquire connection to the server on host:{0} and port:{1}, with the database name: {2}",host ,port ,databaseName);
-            connection = dataSource.getConnection();
-
-            LOG.ok("Connection acquired");
-        } catch (SQLException e) {
-
-            throw new ConnectionFailedException("Database connection could not be established by the connector: "
-                    + e.getLocalizedMessage());
-        }
-
-        return connection;
-    }
-
-    public void test() {
-        LOG.ok("Testing connection via psql validation method");
-        try {
-
-            if (!connection.isValid(configuration.getConnectionValidTimeout())) {
-
-                throw new ConnectionFailedException("The connection validation method evaluated the connection as " +
-                        "not valid.");
-            }
-
-            Statement statement = null;
-            statement = connection.createStatement();
-
-            if (!statement.execute("SELECT 1;")) {
-
-                throw new ConnectionFailedException("Connection not valid per SQL statement validation.");
-            }
-
-        } catch (SQLException e) {
-
-            throw new ConnectorException("Error while evaluating connection validity " + e.getLocalizedMessage());
-        }
-    }
-
-    public void dispose() {
-        configuration = null;
-
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            throw new ConnectorException("Exception while closing a connection to the resource database: "
-                    + e.getLocalizedMessage());
-        }
-    }
-
-    public Connection getConnection() {
-        return connection;
-    }
-}
\ No newline at end of file
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class GrouperConnection {
+    private static final Log LOG = Log.getLog(GrouperConnection.class);
+
+    private GrouperConfiguration configuration;
+    private GrouperConnectionPool pool;
+    private Connection connection;
+    private String snapshot;
+    private boolean snapshotTransaction = false;
+    private int isolation;
+
+    public GrouperConnection(GrouperConfiguration configuration) {
+        this.configuration = configuration;
+        this.pool = GrouperConnectionPool.getPool(configuration);
+
+        try {
+            connection = pool.borrow();
+        } catch (RuntimeException e) {
+
+            GrouperConnectionPool.releasePool(pool);
+            pool = null;
+            throw e;
+        }
+    }
+
+    public void test() {
+        LOG.ok("Testing connection via psql validation method");
+        try {
+
+            Connection connection = getConnection();
+
+            if (!connection.isValid(configuration.getConnectionValidTimeout())) {
+
+                throw new ConnectionFailedException("The connection validation method evaluated the connection as " +
+                        "not valid.");
+            }
+
+            Statement statement = null;
+            statement = connection.createStatement();
+
+            if (!statement.execute("SELECT 1;")) {
+
+                throw new ConnectionFailedException("Connection not valid per SQL statement validation.");
+            }
+
+        } catch (SQLException e) {
+
+            throw new ConnectorException("Error while evaluating connection validity " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Returns the held connection and releases the reference to the connection pool, the instance can not be
+     * used anymore.
+     */
+    public void dispose() {
+        configuration = null;
+
+        release();
+
+        if (pool != null) {
+
+            GrouperConnectionPool.releasePool(pool);
+            pool = null;
+        }
+    }
+
+    /**
+     * Returns the currently held connection back to the connection pool. A new connection is borrowed from
+     * the pool on the next call of {@link GrouperConnection#getConnection()}. A running snapshot transaction
+     * is ended first.
+     */
+    public void release() {
+
+        endSnapshot();
+
+        if (connection != null && pool != null) {
+            pool.release(connection);
+        }
+
+        connection = null;
+    }
+
+    public Connection getConnection() {
+
+        if (connection == null) {
+
+            if (pool == null) {
+
+                throw new ConnectorException("Grouper connection has already been disposed.");
+            }
+
+            connection = pool.borrow();
+        }
+
+        return connection;
+    }
+
+    /**
+     * Returns the listener of the configured change notification channel, null in case no channel is configured.
+     */
+    public GrouperChangeListener getChangeListener() {
+        String channel = configuration != null ? configuration.getChangeNotificationChannel() : null;
+
+        if (channel == null || pool == null) {
+
+            return null;
+        }
+
+        return pool.getChangeListener(channel);
+    }
+
+    /**
+     * Opens a connection in the logical replication mode, the connection is not pooled and has to be closed
+     * by the caller.
+     */
+    public Connection openReplicationConnection() {
+
+        if (pool == null) {
+
+            throw new ConnectorException("Grouper connection has already been disposed.");
+        }
+
+        return pool.openReplication();
+    }
+
+    /**
+     * Starts a repeatable read, read only transaction on the held connection. All the reads on the connection see
+     * the data of the snapshot of the transaction, until the transaction is ended by {@link #endSnapshot()} or by
+     * releasing the connection. Other connections see the same data after joining the snapshot exported by
+     * {@link #exportSnapshot()}, see {@link #joinSnapshot(String)}.
+     */
+    public void beginSnapshot() {
+
+        try {
+            startTransaction();
+        } catch (SQLException e) {
+
+            endSnapshot();
+            throw new ConnectorException("Error while starting the read transaction " + e.getLocalizedMessage());
+        }
+
+        LOG.ok("Started the snapshot read transaction");
+    }
+
+    /**
+     * Exports the snapshot of the running snapshot transaction, the snapshot is exported once, when the first
+     * other connection is about to join it.
+     *
+     * @return the identifier of the exported snapshot, null in case no snapshot transaction is running
+     */
+    public String exportSnapshot() {
+
+        if (!snapshotTransaction || snapshot != null) {
+
+            return snapshot;
+        }
+
+        try (Statement statement = getConnection().createStatement();
+             ResultSet result = statement.executeQuery("SELECT pg_export_snapshot()")) {
+
+            result.next();
+            snapshot = result.getString(1);
+        } catch (SQLException e) {
+
+            throw new ConnectorException("Error while exporting the snapshot of the read transaction "
+                    + e.getLocalizedMessage());
+        }
+
+        LOG.ok("Exported the snapshot {0} of the read transaction", snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Starts a repeatable read, read only transaction on the held connection, which sees the data of the snapshot
+     * exported by another connection. The exporting transaction has to be running, until the transaction joining
+     * the snapshot is started.
+     */
+    public void joinSnapshot(String snapshot) {
+
+        try {
+            startTransaction();
+
+            try (Statement statement = getConnection().createStatement()) {
+
+                // The snapshot identifier can not be bound as a parameter, it is exported by the database
+                statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot.replace("'", "''") + "'");
+            }
+        } catch (SQLException e) {
+
+            endSnapshot();
+            throw new ConnectorException("Error while joining the snapshot " + snapshot + " of the read transaction "
+                    + e.getLocalizedMessage());
+        }
+
+        this.snapshot = snapshot;
+        LOG.ok("Joined the snapshot {0} of the read transaction", snapshot);
+    }
+
+    /**
+     * Returns the identifier of the snapshot seen by the held connection, null in case no snapshot transaction
+     * is running or its snapshot is not exported.
+     */
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Ends the snapshot transaction in case one is running on the held connection.
+     */
+    public void endSnapshot() {
+
+        if (!snapshotTransaction || connection == null) {
+
+            return;
+        }
+
+        try {
+            try {
+                connection.commit();
+            } finally {
+
+                connection.setAutoCommit(true);
+                connection.setReadOnly(false);
+                connection.setTransactionIsolation(isolation);
+            }
+        } catch (SQLException e) {
+
+            LOG.warn("Exception while ending the snapshot transaction: {0}", e.getLocalizedMessage());
+        } finally {
+
+            snapshot = null;
+            snapshotTransaction = false;
+        }
+    }
+
+    private void startTransaction() throws SQLException {
+        Connection connection = getConnection();
+
+        isolation = connection.getTransactionIsolation();
+        snapshotTransaction = true;
+
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        connection.setReadOnly(true);
+        connection.setAutoCommit(false);
+    }
+
+    public boolean isClosed() throws SQLException {
+
+        return pool == null || (connection != null && connection.isClosed());
+    }
+}
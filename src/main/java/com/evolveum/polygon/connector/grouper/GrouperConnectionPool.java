@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper;
+
+import com.evolveum.polygon.common.GuardedStringAccessor;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.postgresql.ds.PGConnectionPoolDataSource;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.postgresql.jdbc.PreferQueryMode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of physical database connections. One pool instance is shared by all the connector instances
+ * which were initialized with an identical {@link GrouperConfiguration}. The pool counts the references of the
+ * {@link GrouperConnection} instances using it and is closed once the last of them is disposed.
+ * <p>
+ * Connections are validated on borrow (using the connection validation timeout), idle connections above the
+ * minimal pool size are evicted after the idle timeout and every connection is closed after reaching its
+ * maximal lifetime. The idle connections are evaluated on each borrow and release, and periodically by an
+ * evictor thread, so an unused pool does not hold expired connections either.
+ */
+public class GrouperConnectionPool {
+    private static final Log LOG = Log.getLog(GrouperConnectionPool.class);
+    private static final Map<String, GrouperConnectionPool> POOLS = new HashMap<>();
+    private static final long MIN_EVICTION_PERIOD = 1000;
+
+    private final PGConnectionPoolDataSource dataSource;
+    private final Integer connectionValidTimeout;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final long maxLifetime;
+    private final long acquireTimeout;
+    private final Semaphore permits;
+    private final Deque<PoolEntry> idle = new ArrayDeque<>();
+    private final Map<Connection, PoolEntry> borrowed = new IdentityHashMap<>();
+    private final Map<String, GrouperChangeListener> changeListeners = new HashMap<>();
+    private final String key;
+    private ScheduledExecutorService evictor;
+    private boolean closed = false;
+    // Guarded by POOLS
+    private int references = 0;
+
+    private GrouperConnectionPool(GrouperConfiguration configuration, String key) {
+        this.key = key;
+        this.dataSource = createDataSource(configuration);
+        this.connectionValidTimeout = configuration.getConnectionValidTimeout();
+        this.minSize = configuration.getConnectionPoolMinSize();
+        this.maxSize = configuration.getConnectionPoolMaxSize();
+        this.idleTimeout = TimeUnit.SECONDS.toMillis(configuration.getConnectionIdleTimeout());
+        this.maxLifetime = TimeUnit.SECONDS.toMillis(configuration.getConnectionMaxLifetime());
+        this.acquireTimeout = TimeUnit.SECONDS.toMillis(configuration.getConnectionAcquireTimeout());
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Returns the pool related to the configuration values, a new pool is created if none exists yet. Each call
+     * adds a reference to the pool, which has to be released by {@link #releasePool(GrouperConnectionPool)}.
+     */
+    public static GrouperConnectionPool getPool(GrouperConfiguration configuration) {
+        String key = poolKey(configuration);
+
+        synchronized (POOLS) {
+            GrouperConnectionPool pool = POOLS.get(key);
+
+            if (pool == null) {
+
+                LOG.ok("Creating a new connection pool for the host: {0}, database: {1}", configuration.getHost(),
+                        configuration.getDatabaseName());
+                pool = new GrouperConnectionPool(configuration, key);
+                pool.fill();
+                pool.startEvictor();
+                POOLS.put(key, pool);
+            }
+
+            pool.references++;
+            return pool;
+        }
+    }
+
+    /**
+     * Releases a reference to the pool. The pool is closed and removed after its last reference is released,
+     * so the pools of configurations which are no longer used (e.g. after a change of the password) do not stay
+     * open.
+     */
+    public static void releasePool(GrouperConnectionPool pool) {
+        synchronized (POOLS) {
+            pool.references--;
+
+            if (pool.references > 0) {
+
+                return;
+            }
+
+            if (POOLS.get(pool.key) == pool) {
+
+                POOLS.remove(pool.key);
+            }
+        }
+
+        LOG.ok("Closing the connection pool, it is no longer referenced.");
+        pool.close();
+    }
+
+    public Connection borrow() {
+        evict();
+
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+
+                throw new ConnectionFailedException("Timed out while waiting for a free connection from the " +
+                        "connection pool, the maximal pool size is: " + maxSize);
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new ConnectionFailedException("Interrupted while waiting for a free connection from the " +
+                    "connection pool.");
+        }
+
+        try {
+            while (true) {
+                PoolEntry entry;
+
+                synchronized (this) {
+                    if (closed) {
+
+                        throw new ConnectorException("The connection pool has already been closed.");
+                    }
+                    entry = idle.pollFirst();
+                }
+
+                if (entry == null) {
+
+                    entry = new PoolEntry(open());
+                } else if (!isValid(entry)) {
+
+                    close(entry);
+                    continue;
+                }
+
+                synchronized (this) {
+                    borrowed.put(entry.connection, entry);
+                }
+
+                return entry.connection;
+            }
+        } catch (RuntimeException e) {
+
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Connection connection) {
+        PoolEntry entry;
+
+        synchronized (this) {
+            entry = borrowed.remove(connection);
+        }
+
+        if (entry == null) {
+
+            LOG.warn("Connection returned to the pool which was not borrowed from it, ignoring.");
+            return;
+        }
+
+        try {
+            boolean keep;
+
+            synchronized (this) {
+                keep = !closed;
+            }
+
+            if (keep && !connection.isClosed() && !entry.isExpired(System.currentTimeMillis())) {
+
+                reset(connection);
+                entry.lastUsed = System.currentTimeMillis();
+
+                synchronized (this) {
+                    idle.offerFirst(entry);
+                }
+            } else {
+
+                close(entry);
+            }
+        } catch (SQLException e) {
+
+            LOG.warn("Exception while returning connection to the pool, the connection will be closed: {0}",
+                    e.getLocalizedMessage());
+            close(entry);
+        } finally {
+
+            permits.release();
+        }
+
+        evict();
+    }
+
+    /**
+     * Returns the listener of the change notifications on the channel, the listener is started on the first request.
+     * Listeners are stopped together with the pool.
+     */
+    public synchronized GrouperChangeListener getChangeListener(String channel) {
+
+        if (closed) {
+
+            throw new ConnectorException("The connection pool has already been closed.");
+        }
+
+        GrouperChangeListener listener = changeListeners.get(channel);
+
+        if (listener == null) {
+
+            LOG.ok("Starting the change notification listener on the channel {0}", channel);
+            listener = new GrouperChangeListener(this, channel);
+            listener.start();
+            changeListeners.put(channel, listener);
+        }
+
+        return listener;
+    }
+
+    private void fill() {
+        List<PoolEntry> created = new ArrayList<>();
+
+        for (int i = 0; i < minSize; i++) {
+
+            created.add(new PoolEntry(open()));
+        }
+
+        synchronized (this) {
+            idle.addAll(created);
+        }
+    }
+
+    /**
+     * Starts the periodic eviction of the idle connections, at half of the shorter of the idle timeout and
+     * the maximal lifetime. No evictor is started in case neither of them is set.
+     */
+    private void startEvictor() {
+        long period = Long.MAX_VALUE;
+
+        if (idleTimeout > 0) {
+
+            period = idleTimeout / 2;
+        }
+
+        if (maxLifetime > 0) {
+
+            period = Math.min(period, maxLifetime / 2);
+        }
+
+        if (period == Long.MAX_VALUE) {
+
+            return;
+        }
+
+        period = Math.max(period, MIN_EVICTION_PERIOD);
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grouper-connection-pool-evictor");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void evict() {
+        List<PoolEntry> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Iterator<PoolEntry> iterator = idle.descendingIterator();
+            int total = idle.size() + borrowed.size();
+
+            while (iterator.hasNext()) {
+                PoolEntry entry = iterator.next();
+
+                if (entry.isExpired(now) || (total > minSize && idleTimeout > 0 && now - entry.lastUsed > idleTimeout)) {
+
+                    iterator.remove();
+                    evicted.add(entry);
+                    total--;
+                }
+            }
+        }
+
+        if (!evicted.isEmpty()) {
+            LOG.ok("Evicting {0} idle connections from the connection pool.", evicted.size());
+        }
+
+        for (PoolEntry entry : evicted) {
+
+            close(entry);
+        }
+    }
+
+    private void close() {
+        List<PoolEntry> entries;
+        List<GrouperChangeListener> listeners;
+
+        synchronized (this) {
+            closed = true;
+            entries = new ArrayList<>(idle);
+            idle.clear();
+            listeners = new ArrayList<>(changeListeners.values());
+            changeListeners.clear();
+        }
+
+        for (GrouperChangeListener listener : listeners) {
+
+            listener.stop();
+        }
+
+        if (evictor != null) {
+
+            evictor.shutdownNow();
+        }
+
+        LOG.ok("Closing connection pool, number of idle connections being closed: {0}", entries.size());
+
+        for (PoolEntry entry : entries) {
+
+            close(entry);
+        }
+    }
+
+    private boolean isValid(PoolEntry entry) {
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+
+            return false;
+        }
+
+        try {
+
+            return entry.connection.isValid(connectionValidTimeout);
+        } catch (SQLException e) {
+
+            LOG.ok("Pooled connection evaluated as not valid: {0}", e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    private void reset(Connection connection) throws SQLException {
+
+        if (!connection.getAutoCommit()) {
+
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+
+        if (connection.isReadOnly()) {
+
+            connection.setReadOnly(false);
+        }
+    }
+
+    private void close(PoolEntry entry) {
+        try {
+            if (!entry.connection.isClosed()) {
+                entry.connection.close();
+            }
+        } catch (SQLException e) {
+
+            LOG.warn("Exception while closing a pooled connection: {0}", e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Opens a new physical connection which is not managed by the pool.
+     */
+    Connection open() {
+        try {
+            LOG.ok("About to acquire connection to the server on host:{0} and port:{1}, with the database name: {2}",
+                    dataSource.getServerNames()[0], dataSource.getPortNumbers()[0], dataSource.getDatabaseName());
+            Connection connection = dataSource.getConnection();
+
+            LOG.ok("Connection acquired");
+            return connection;
+        } catch (SQLException e) {
+
+            throw new ConnectionFailedException("Database connection could not be established by the connector: "
+                    + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Opens a new physical connection in the logical replication mode, which is not managed by the pool.
+     */
+    Connection openReplication() {
+        PGSimpleDataSource replicationDataSource = new PGSimpleDataSource();
+
+        replicationDataSource.setPortNumbers(dataSource.getPortNumbers());
+        replicationDataSource.setUser(dataSource.getUser());
+        replicationDataSource.setServerNames(dataSource.getServerNames());
+        replicationDataSource.setDatabaseName(dataSource.getDatabaseName());
+        replicationDataSource.setPassword(dataSource.getPassword());
+        replicationDataSource.setReplication("database");
+        replicationDataSource.setAssumeMinServerVersion("9.4");
+        replicationDataSource.setPreferQueryMode(PreferQueryMode.SIMPLE);
+
+        try {
+            LOG.ok("About to acquire replication connection to the server on host:{0}, with the database name: {1}",
+                    dataSource.getServerNames()[0], dataSource.getDatabaseName());
+
+            return replicationDataSource.getConnection();
+        } catch (SQLException e) {
+
+            throw new ConnectionFailedException("Replication connection could not be established by the connector: "
+                    + e.getLocalizedMessage());
+        }
+    }
+
+    private static PGConnectionPoolDataSource createDataSource(GrouperConfiguration configuration) {
+        final PGConnectionPoolDataSource dataSource = new PGConnectionPoolDataSource();
+
+        dataSource.setPortNumbers(new int[]{Integer.parseInt(configuration.getPort())});
+        dataSource.setUser(configuration.getUserName());
+        dataSource.setServerNames(new String[]{configuration.getHost()});
+        dataSource.setDatabaseName(configuration.getDatabaseName());
+        dataSource.setCurrentSchema(configuration.getSchema());
+        dataSource.setPassword(clearPassword(configuration));
+
+        return dataSource;
+    }
+
+    private static String poolKey(GrouperConfiguration configuration) {
+        StringBuilder key = new StringBuilder();
+
+        key.append(configuration.getHost()).append('|')
+                .append(configuration.getPort()).append('|')
+                .append(configuration.getDatabaseName()).append('|')
+                .append(configuration.getSchema()).append('|')
+                .append(configuration.getUserName()).append('|')
+                .append(configuration.getConnectionValidTimeout()).append('|')
+                .append(configuration.getConnectionPoolMinSize()).append('|')
+                .append(configuration.getConnectionPoolMaxSize()).append('|')
+                .append(configuration.getConnectionIdleTimeout()).append('|')
+                .append(configuration.getConnectionMaxLifetime()).append('|')
+                .append(configuration.getConnectionAcquireTimeout()).append('|');
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(clearPassword(configuration).getBytes(StandardCharsets.UTF_8));
+
+            key.append(Base64.getEncoder().encodeToString(hash));
+        } catch (NoSuchAlgorithmException e) {
+
+            throw new ConnectorException("Exception while computing the connection pool key: "
+                    + e.getLocalizedMessage());
+        }
+
+        return key.toString();
+    }
+
+    private static String clearPassword(GrouperConfiguration configuration) {
+        GuardedStringAccessor accessorSecret = new GuardedStringAccessor();
+        configuration.getPassword().access(accessorSecret);
+
+        return accessorSecret.getClearString();
+    }
+
+    private class PoolEntry {
+        private final Connection connection;
+        private final long created;
+        private long lastUsed;
+
+        private PoolEntry(Connection connection) {
+            this.connection = connection;
+            this.created = System.currentTimeMillis();
+            this.lastUsed = created;
+        }
+
+        private boolean isExpired(long now) {
+
+            return maxLifetime > 0 && now - created > maxLifetime;
+        }
+    }
+}
@@ -1,571 +1,890 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper;
-
-import com.evolveum.polygon.connector.grouper.util.*;
-import org.identityconnectors.common.CollectionUtil;
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
-import org.identityconnectors.framework.common.exceptions.ConnectorException;
-import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
-import org.identityconnectors.framework.common.objects.*;
-import org.identityconnectors.framework.common.objects.filter.Filter;
-import org.identityconnectors.framework.common.objects.filter.FilterTranslator;
-import org.identityconnectors.framework.spi.Configuration;
-import org.identityconnectors.framework.spi.Connector;
-import org.identityconnectors.framework.spi.ConnectorClass;
-import org.identityconnectors.framework.spi.PoolableConnector;
-import org.identityconnectors.framework.spi.operations.*;
-
-import java.sql.SQLException;
-import java.util.*;
-
-/**
- * midPoint connector for InCommon Grouper
- * <p>
- * The connector acts as a read only connector. Capabilities include also live synchronization using
- * a 'modified' time stamp column and 'deleted' colum for updates.
- * <p>
- * Connector reads data trough multiple database tables related to both supported object types. The rows related to
- * a specific objects are then merged and from this a specific object is constructed and handled.
- * <p>
- *
- * @author Matus Macik
- * @since 1.0
- */
-@ConnectorClass(displayNameKey = "grouper.connector.display", configurationClass = GrouperConfiguration.class)
-public class GrouperConnector implements PoolableConnector, SchemaOp, TestOp, SearchOp<Filter>, DiscoverConfigurationOp,
-        SyncOp {
-
-    /**
-     * Instance of Log, for logging of the class {@link GrouperConnector}.
-     */
-    private static final Log LOG = Log.getLog(GrouperConnector.class);
-
-    /**
-     * Instance of {@link Configuration}. Initialized via callback at
-     * {@link GrouperConnector#init(Configuration)}
-     */
-    private GrouperConfiguration configuration;
-
-    /**
-     * Instance of {@link GrouperConnection}. This class handles the connection to the grouper repository.
-     * The class created an instance of {@link java.sql.Connection} which is consumed by the underlying connector
-     * methods.
-     */
-    private GrouperConnection grouperConnection;
-
-    /**
-     * Accessor for {@link Configuration}.
-     */
-    @Override
-    public Configuration getConfiguration() {
-        return configuration;
-    }
-
-    /**
-     * Initialization of basic connector parameters.
-     */
-    @Override
-    public void init(Configuration configuration) {
-
-        LOG.ok("Initialization of Grouper connector");
-        this.configuration = (GrouperConfiguration) configuration;
-        this.grouperConnection = new GrouperConnection(this.configuration);
-
-    }
-
-    /**
-     * Cleanup method for connector.
-     */
-    @Override
-    public void dispose() {
-        configuration = null;
-        if (grouperConnection != null) {
-            grouperConnection.dispose();
-            grouperConnection = null;
-        }
-    }
-
-    /**
-     * Generated the schema for both object classes supported by the connector. The schema is partially hardcoded
-     * and partially might be dynamically computed based on extension attributes. Method uses a utility class instance
-     * of {@link SchemaTranslator} which handles the specifics.
-     */
-    @Override
-    public Schema schema() {
-        LOG.info("Evaluating the schema operation");
-        SchemaTranslator translator = new SchemaTranslator();
-
-        return translator.generateSchema(configuration);
-
-    }
-
-
-    @Override
-    public FilterTranslator createFilterTranslator(ObjectClass objectClass, OperationOptions operationOptions) {
-
-        return new FilterTranslator<Filter>() {
-            @Override
-            public List<Filter> translate(Filter filter) {
-                return CollectionUtil.newList(filter);
-            }
-        };
-    }
-
-    /**
-     * Method used to search the data source for object data. Method uses {@link Filter} type objects which are
-     * translated and execute as a native SQL query. Based on the {@link ObjectClass}, the specific tables and
-     * table data related to the concrete object class is selected. Based on the {@link OperationOptions}, the method
-     * might fetch auxiliary attributes and use pagination, based on this it will modify the native query and output data.
-     */
-    @Override
-    public void executeQuery(ObjectClass objectClass, Filter filter, ResultsHandler resultsHandler, OperationOptions
-            operationOptions) {
-
-        LOG.info("Processing through the executeQuery operation using the object class: {0}", objectClass);
-        LOG.ok("The filter(s) used for the execute query operation:{0} ", filter == null ? "Empty filter, fetching" +
-                " all objects of the object type." : filter);
-        LOG.ok("Evaluating executeQuery with the following operation options: {0}", operationOptions == null ? "empty" +
-                "operation options." : operationOptions);
-
-        if (objectClass == null) {
-
-            throw new IllegalArgumentException("Object class attribute can no be null");
-        }
-
-        if (resultsHandler == null) {
-            LOG.error("Attribute of type ResultsHandler not provided.");
-            throw new InvalidAttributeValueException("Attribute of type ResultsHandler is not provided.");
-        }
-
-
-        if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
-            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
-
-            subjectProcessing.executeQuery(filter, resultsHandler, operationOptions, grouperConnection.getConnection());
-
-        }
-
-
-        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
-            GroupProcessing groupProcessing = new GroupProcessing(configuration);
-
-
-            groupProcessing.executeQuery(filter, resultsHandler, operationOptions, grouperConnection.getConnection());
-
-        }
-
-        LOG.ok("Finished evaluating the execute query operation.");
-    }
-
-    /**
-     * Basic test operation which uses a simple query to evaluate if the connector configuration is valid and
-     * the connection is working.
-     */
-    @Override
-    public void test() {
-        LOG.info("Executing test operation.");
-        configuration.validate();
-        grouperConnection.test();
-        grouperConnection.dispose();
-
-        LOG.ok("Test OK");
-    }
-
-    @Override
-    public void testPartialConfiguration() {
-        // Test method would be equal to 'test()', so left empty so there is no additional overhead.
-
-    }
-
-    /**
-     * Method generates a set of initial configuration values. These can be used in the interaction with the remote
-     * system or can be overriden. Also the method produces a list of names of the auxiliary attributes present in the auxiliary
-     * attribute tables. It is then possible to choose from this list which attributes should be present in the
-     * resource schema.
-     */
-    @Override
-    public Map<String, SuggestedValues> discoverConfiguration() {
-        Map<String, SuggestedValues> suggestions = new HashMap<>();
-
-        Integer connectionValidTimeout = configuration.getConnectionValidTimeout();
-        Boolean excludeDeletedObjects = configuration.getExcludeDeletedObjects();
-        Boolean enableIdBasedPaging = configuration.getEnableIdBasedPaging();
-
-        if (connectionValidTimeout != null) {
-
-            suggestions.put("connectionValidTimeout", SuggestedValuesBuilder.buildOpen(connectionValidTimeout));
-        } else {
-
-            // Default for connectionValidTimeout
-            suggestions.put("connectionValidTimeout", SuggestedValuesBuilder.buildOpen("10"));
-        }
-
-        if (excludeDeletedObjects != null) {
-
-            suggestions.put("excludeDeletedObjects", SuggestedValuesBuilder.buildOpen(excludeDeletedObjects));
-        } else {
-
-            suggestions.put("excludeDeletedObjects", SuggestedValuesBuilder.buildOpen(true));
-        }
-
-        if (enableIdBasedPaging != null) {
-
-            suggestions.put("enableIdBasedPaging", SuggestedValuesBuilder.buildOpen(enableIdBasedPaging));
-        } else {
-
-            suggestions.put("enableIdBasedPaging", SuggestedValuesBuilder.buildOpen(false));
-        }
-
-        suggestions.put("extendedGroupProperties", SuggestedValuesBuilder.buildOpen(
-                fetchExtensionAttributes(GroupProcessing.O_CLASS) != null ?
-                        fetchExtensionAttributes(GroupProcessing.O_CLASS).toArray(new String[0]) : null
-        ));
-
-        suggestions.put("extendedSubjectProperties", SuggestedValuesBuilder.buildOpen(
-                fetchExtensionAttributes(SubjectProcessing.O_CLASS) != null ?
-                        fetchExtensionAttributes(SubjectProcessing.O_CLASS).toArray(new String[0]) : null
-        ));
-
-        return suggestions;
-    }
-
-    private Set<String> fetchExtensionAttributes(ObjectClass oClass) {
-        LOG.info("Fetching extension attributes for the object class {0}", oClass);
-
-        if (oClass.equals(GroupProcessing.O_CLASS)) {
-
-            GroupProcessing processing = new GroupProcessing(configuration);
-
-            try {
-                return processing.fetchExtensionSchema(grouperConnection.getConnection());
-
-            } catch (SQLException e) {
-
-                String errMessage = "Exception occurred while fetching the extension attributes for dynamic schema " +
-                        "evaluation. The object class being handled: " + oClass;
-
-                throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
-            }
-
-        } else if (oClass.equals(SubjectProcessing.O_CLASS)) {
-
-            SubjectProcessing processing = new SubjectProcessing(configuration);
-
-            try {
-                return processing.fetchExtensionSchema(grouperConnection.getConnection());
-
-            } catch (SQLException e) {
-                String errMessage = "Exception occurred while fetching the extension attributes for dynamic schema " +
-                        "evaluation. The object class being handled: " + oClass;
-
-                throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
-            }
-
-        } else {
-
-            throw new ConnectorException("Unexpected object class used in extension attribute evaluation.");
-        }
-
-    }
-
-    /**
-     * Implementation of SyncOP sync method. Method requests changes which are used for synchronization of data.
-     * Synchronization events are ordered based on a 'modified' time stamp column which values are
-     * used as the {@link SyncToken} value. The syncToken is used also in each call, when a query is generated to fetch
-     * rows marked with a time stamp value following the value of syncToken.
-     * Based on the {@link ObjectClass}, the specific tables and table data related to the concrete object class is
-     * selected. Based on the {@link OperationOptions}, the method might fetch auxiliary attributes and use pagination.
-     * The "deleted" column is used to mark objects or rows related to an object as removed.
-     */
-    @Override
-    public void sync(ObjectClass objectClass, SyncToken syncToken, SyncResultsHandler syncResultsHandler,
-                     OperationOptions operationOptions) {
-
-        LOG.ok("Evaluation of SYNC op method regarding the object class {0} with the following options: {1}", objectClass
-                , operationOptions);
-
-        if (syncToken == null) {
-
-            LOG.ok("Empty token, fetching latest sync token");
-            syncToken = getLatestSyncToken(objectClass);
-
-        }
-
-
-        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
-            GroupProcessing groupProcessing = new GroupProcessing(configuration);
-            groupProcessing.sync(syncToken, syncResultsHandler, operationOptions, grouperConnection.getConnection());
-
-        } else if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
-            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
-            subjectProcessing.sync(syncToken, syncResultsHandler, operationOptions, grouperConnection.getConnection());
-
-        } else if (objectClass.is(ObjectClass.ALL_NAME)) {
-
-            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
-            GroupProcessing groupProcessing = new GroupProcessing(configuration);
-            LinkedHashMap<String, GrouperObject> subjectObjectLinkedHashMap = new LinkedHashMap<>();
-            LinkedHashMap<String, GrouperObject> groupObjectLinkedHashMap = new LinkedHashMap<>();
-            Integer maxPageSize = configuration.getMaxPageSize();
-
-
-            QueryBuilder subjectQuery = subjectProcessing.syncQuery(syncToken, operationOptions,
-                    grouperConnection.getConnection(), true);
-            QueryBuilder groupQuery = groupProcessing.syncQuery(syncToken, operationOptions,
-                    grouperConnection.getConnection(), true);
-
-            Integer subjectCount = subjectQuery.getTotalCount();
-            Integer groupCount = groupQuery.getTotalCount();
-            if (maxPageSize != null) {
-                if (subjectCount != null) {
-
-                    for (int i = 0; subjectCount >= i; i = i + maxPageSize) {
-
-                        subjectQuery.setPageSize(maxPageSize);
-                        subjectQuery.setPageOffset(i + 1);
-
-                        subjectObjectLinkedHashMap.putAll(subjectProcessing.
-                                sync(syncToken, operationOptions, grouperConnection.getConnection(), subjectQuery,
-                                        true));
-
-                    }
-                }
-
-                if (groupCount != null) {
-
-                    for (int i = 0; groupCount >= i; i = i + maxPageSize) {
-
-                        groupQuery.setPageSize(maxPageSize);
-                        groupQuery.setPageOffset(i + 1);
-
-                        groupObjectLinkedHashMap.putAll(groupProcessing.
-                                sync(syncToken, operationOptions, grouperConnection.getConnection(), groupQuery,
-                                        true));
-                    }
-                }
-
-            } else {
-
-                subjectObjectLinkedHashMap = subjectProcessing.
-                        sync(syncToken, operationOptions, grouperConnection.getConnection(), subjectQuery,
-                                true);
-
-                groupObjectLinkedHashMap = groupProcessing.
-                        sync(syncToken, operationOptions, grouperConnection.getConnection(), groupQuery,
-                                true);
-            }
-
-
-            LinkedHashMap<String, GrouperObject> mergedMap = new LinkedHashMap<>();
-
-            Iterator<String> groupIterator = groupObjectLinkedHashMap.keySet().iterator();
-            Iterator<String> subjectIterator = subjectObjectLinkedHashMap.keySet().iterator();
-
-            GrouperObject grouperGroup = null;
-            Long groupTimestamp = null;
-
-            while (subjectIterator.hasNext()) {
-                GrouperObject so = subjectObjectLinkedHashMap.get(subjectIterator.next());
-                Long subjectTimestamp = so.latestTimestamp;
-
-                while (groupIterator.hasNext()) {
-
-                    if (grouperGroup == null) {
-                        grouperGroup = groupObjectLinkedHashMap.get(groupIterator.next());
-                    }
-                    if (groupTimestamp == null) {
-                        groupTimestamp = grouperGroup.latestTimestamp;
-                    }
-
-                    if (groupTimestamp.compareTo(subjectTimestamp) <= 0) {
-                        mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-
-                        if (!groupIterator.hasNext()) {
-                            grouperGroup = null;
-
-                        } else {
-                            grouperGroup = groupObjectLinkedHashMap.get(groupIterator.next());
-                            groupTimestamp = grouperGroup.latestTimestamp;
-
-                        }
-                    } else {
-                        mergedMap.put(so.getIdentifier(), so);
-
-                        break;
-                    }
-                }
-                if (!groupIterator.hasNext()) {
-
-                    if (grouperGroup != null) {
-
-                        if (groupTimestamp.compareTo(subjectTimestamp) <= 0) {
-                            mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-                            mergedMap.put(so.getIdentifier(), so);
-                            grouperGroup = null;
-                        } else {
-                            mergedMap.put(so.getIdentifier(), so);
-                        }
-                    } else {
-                        mergedMap.put(so.getIdentifier(), so);
-                    }
-                }
-            }
-
-            if (groupIterator.hasNext()) {
-
-                while (groupIterator.hasNext()) {
-
-                    if (grouperGroup != null) {
-                        mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-                        grouperGroup = groupObjectLinkedHashMap.get(groupIterator.next());
-
-                        if (!groupIterator.hasNext()) {
-                            mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-                        }
-                    } else {
-                        grouperGroup = groupObjectLinkedHashMap.get(groupIterator.next());
-                        mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-                    }
-
-                }
-            } else {
-
-                if (grouperGroup != null) {
-
-                    mergedMap.put(grouperGroup.getIdentifier(), grouperGroup);
-                }
-            }
-
-            for (String id : mergedMap.keySet()) {
-
-                GrouperObject go = mergedMap.get(id);
-
-                if (go.getObjectClass().is(ObjectProcessing.GROUP_NAME)) {
-
-                    if (!groupProcessing.sync(syncResultsHandler, GroupProcessing.O_CLASS, go)) {
-
-                        break;
-                    }
-                } else if (go.getObjectClass().is(SubjectProcessing.SUBJECT_NAME)) {
-
-                    if (!subjectProcessing.sync(syncResultsHandler, SubjectProcessing.O_CLASS, go)) {
-
-                        break;
-                    }
-                }
-            }
-
-        } else {
-
-            throw new UnsupportedOperationException("Attribute of type" + objectClass + "is not supported. " +
-                    "Only " + GroupProcessing.GROUP_NAME + " and " + ObjectProcessing.SUBJECT_NAME + " objectclass " +
-                    "is supported for SyncOp currently.");
-        }
-    }
-
-    /**
-     * Method fetches the latest "modified" time stamp value of the specific object class, and based on it
-     * creates and instance of {@link SyncToken}. In case of the "ALL" {@link ObjectClass}, the token will be the
-     * later one from the Subject and Group object classes compared.
-     */
-    @Override
-    public SyncToken getLatestSyncToken(ObjectClass objectClass) {
-
-
-        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
-
-            GroupProcessing groupProcessing = new GroupProcessing(configuration);
-            Long groupToken = groupProcessing.getLatestSyncToken(grouperConnection.getConnection());
-
-            if (groupToken != null) {
-
-                return new SyncToken(groupToken);
-            } else {
-
-                return null;
-            }
-
-        } else if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
-
-            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
-            Long subjectToken = subjectProcessing.getLatestSyncToken(grouperConnection.getConnection());
-
-            if (subjectToken != null) {
-
-                return new SyncToken(subjectToken);
-            } else {
-
-                return null;
-            }
-
-        } else if (objectClass.is(ObjectClass.ALL_NAME)) {
-
-            GroupProcessing groupProcessing = new GroupProcessing(configuration);
-            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
-
-            Long subjectToken = subjectProcessing.getLatestSyncToken(grouperConnection.getConnection());
-
-            Long groupToken = groupProcessing.getLatestSyncToken(grouperConnection.getConnection());
-
-            if (subjectToken != null) {
-
-                if (groupToken != null && subjectToken.compareTo(groupToken) <= 0) {
-
-                    return new SyncToken(groupToken);
-                } else {
-
-                    return new SyncToken(subjectToken);
-                }
-
-
-            } else if (groupToken != null) {
-
-                return new SyncToken(groupToken);
-            } else {
-
-                return null;
-            }
-
-        } else {
-
-            throw new UnsupportedOperationException("Attribute of type" + objectClass + "is not supported. " +
-                    "Only " + GroupProcessing.GROUP_NAME + " and " + ObjectProcessing.SUBJECT_NAME + " objectclass " +
-                    "is supported for SyncOp currently.");
-        }
-    }
-
-    @Override
-    public void checkAlive() {
-
-        try {
-            if (grouperConnection !=null && !grouperConnection.getConnection().isClosed()){
-                return;
-            } else if (grouperConnection.getConnection().isClosed()) {
-
-                throw new ConnectionFailedException("Database connection has been closed");
-            } else {
-
-                throw new ConnectionFailedException("Instance of grouper connection does not exist");
-            }
-        } catch (SQLException e) {
-
-            throw new ConnectionFailedException("An exception occurred during check-alive. ",e);
-        }
-    }
-}
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper;
+
+import com.evolveum.polygon.connector.grouper.util.*;
+import org.identityconnectors.common.CollectionUtil;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectionFailedException;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.*;
+import org.identityconnectors.framework.common.objects.filter.EqualsFilter;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterTranslator;
+import org.identityconnectors.framework.spi.Configuration;
+import org.identityconnectors.framework.spi.Connector;
+import org.identityconnectors.framework.spi.ConnectorClass;
+import org.identityconnectors.framework.spi.PoolableConnector;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
+import org.identityconnectors.framework.spi.operations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * midPoint connector for InCommon Grouper
+ * <p>
+ * The connector acts as a read only connector. Capabilities include also live synchronization using
+ * a 'modified' time stamp column and 'deleted' colum for updates.
+ * <p>
+ * Connector reads data trough multiple database tables related to both supported object types. The rows related to
+ * a specific objects are then merged and from this a specific object is constructed and handled.
+ * <p>
+ *
+ * @author Matus Macik
+ * @since 1.0
+ */
+@ConnectorClass(displayNameKey = "grouper.connector.display", configurationClass = GrouperConfiguration.class)
+public class GrouperConnector implements PoolableConnector, SchemaOp, TestOp, SearchOp<Filter>, DiscoverConfigurationOp,
+        SyncOp {
+
+    /**
+     * Instance of Log, for logging of the class {@link GrouperConnector}.
+     */
+    private static final Log LOG = Log.getLog(GrouperConnector.class);
+
+    /**
+     * Instance of {@link Configuration}. Initialized via callback at
+     * {@link GrouperConnector#init(Configuration)}
+     */
+    private GrouperConfiguration configuration;
+
+    /**
+     * Instance of {@link GrouperConnection}. This class handles the connection to the grouper repository.
+     * The class created an instance of {@link java.sql.Connection} which is consumed by the underlying connector
+     * methods.
+     */
+    private GrouperConnection grouperConnection;
+
+    /**
+     * Accessor for {@link Configuration}.
+     */
+    @Override
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Initialization of basic connector parameters.
+     */
+    @Override
+    public void init(Configuration configuration) {
+
+        LOG.ok("Initialization of Grouper connector");
+        this.configuration = (GrouperConfiguration) configuration;
+        this.grouperConnection = new GrouperConnection(this.configuration);
+
+    }
+
+    /**
+     * Cleanup method for connector.
+     */
+    @Override
+    public void dispose() {
+        configuration = null;
+        if (grouperConnection != null) {
+            grouperConnection.dispose();
+            grouperConnection = null;
+        }
+    }
+
+    /**
+     * Generated the schema for both object classes supported by the connector. The schema is partially hardcoded
+     * and partially might be dynamically computed based on extension attributes. Method uses a utility class instance
+     * of {@link SchemaTranslator} which handles the specifics.
+     */
+    @Override
+    public Schema schema() {
+        LOG.info("Evaluating the schema operation");
+        SchemaTranslator translator = new SchemaTranslator();
+
+        return translator.generateSchema(configuration);
+
+    }
+
+
+    @Override
+    public FilterTranslator createFilterTranslator(ObjectClass objectClass, OperationOptions operationOptions) {
+
+        return new FilterTranslator<Filter>() {
+            @Override
+            public List<Filter> translate(Filter filter) {
+                return CollectionUtil.newList(filter);
+            }
+        };
+    }
+
+    /**
+     * Method used to search the data source for object data. Method uses {@link Filter} type objects which are
+     * translated and execute as a native SQL query. Based on the {@link ObjectClass}, the specific tables and
+     * table data related to the concrete object class is selected. Based on the {@link OperationOptions}, the method
+     * might fetch auxiliary attributes and use pagination, based on this it will modify the native query and output data.
+     */
+    @Override
+    public void executeQuery(ObjectClass objectClass, Filter filter, ResultsHandler resultsHandler, OperationOptions
+            operationOptions) {
+
+        LOG.info("Processing through the executeQuery operation using the object class: {0}", objectClass);
+        LOG.ok("The filter(s) used for the execute query operation:{0} ", filter == null ? "Empty filter, fetching" +
+                " all objects of the object type." : filter);
+        LOG.ok("Evaluating executeQuery with the following operation options: {0}", operationOptions == null ? "empty" +
+                "operation options." : operationOptions);
+
+        if (objectClass == null) {
+
+            throw new IllegalArgumentException("Object class attribute can no be null");
+        }
+
+        if (resultsHandler == null) {
+            LOG.error("Attribute of type ResultsHandler not provided.");
+            throw new InvalidAttributeValueException("Attribute of type ResultsHandler is not provided.");
+        }
+
+
+        List<GrouperConnection> prefetchConnections = new ArrayList<>();
+
+        try {
+            // A single object is read by one query, there is no other read to be consistent with
+            if (configuration.getEnableSnapshotReads() && !isUidLookup(filter)) {
+
+                grouperConnection.beginSnapshot();
+            }
+
+            if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
+                SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
+
+                if (isParallelScan(filter, operationOptions)) {
+
+                    executeParallelScan(subjectProcessing, () -> new SubjectProcessing(configuration),
+                            resultsHandler, operationOptions);
+                } else {
+
+                    setPrefetchConnection(subjectProcessing, prefetchConnections);
+                    subjectProcessing.executeQuery(filter, resultsHandler, operationOptions,
+                            grouperConnection.getConnection());
+                }
+            }
+
+
+            if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
+                GroupProcessing groupProcessing = new GroupProcessing(configuration);
+
+                if (isParallelScan(filter, operationOptions)) {
+
+                    executeParallelScan(groupProcessing, () -> new GroupProcessing(configuration),
+                            resultsHandler, operationOptions);
+                } else {
+
+                    setPrefetchConnection(groupProcessing, prefetchConnections);
+                    groupProcessing.executeQuery(filter, resultsHandler, operationOptions,
+                            grouperConnection.getConnection());
+                }
+            }
+        } finally {
+
+            for (GrouperConnection prefetchConnection : prefetchConnections) {
+
+                prefetchConnection.dispose();
+            }
+
+            grouperConnection.release();
+        }
+
+        LOG.ok("Finished evaluating the execute query operation.");
+    }
+
+    /**
+     * In case the page prefetch is enabled, the processing borrows the connection for the prefetch of the next
+     * page once it reads a search in pages.
+     */
+    private void setPrefetchConnection(ObjectProcessing processing, List<GrouperConnection> prefetchConnections) {
+
+        if (configuration.getEnablePagePrefetch()) {
+
+            processing.setPrefetchConnectionSupplier(() -> openReadConnection(prefetchConnections).getConnection());
+        }
+    }
+
+    /**
+     * Evaluates if the search reads a single object by its identifier.
+     */
+    private boolean isUidLookup(Filter filter) {
+
+        return filter instanceof EqualsFilter && Uid.NAME.equals(((EqualsFilter) filter).getAttribute().getName());
+    }
+
+    /**
+     * Evaluates if the search is read in parallel key ranges, i.e. if the reconciliation parallelism is set and all
+     * the objects are searched for, without any paging of the results.
+     */
+    private boolean isParallelScan(Filter filter, OperationOptions operationOptions) {
+        Integer parallelism = configuration.getReconciliationParallelism();
+
+        if (filter != null || parallelism == null || parallelism < 2) {
+
+            return false;
+        }
+
+        return operationOptions == null || (operationOptions.getPageSize() == null
+                && operationOptions.getPagedResultsCookie() == null
+                && operationOptions.getPagedResultsOffset() == null);
+    }
+
+    /**
+     * Searches all the objects in parallel key ranges. Each of the ranges is read on its own pooled connection,
+     * using its own instance of the processing. In case the key space can not be split, the objects are read by
+     * a single query.
+     */
+    private void executeParallelScan(ObjectProcessing processing, Supplier<ObjectProcessing> rangeProcessingSupplier,
+                                     ResultsHandler resultsHandler, OperationOptions operationOptions) {
+        List<Filter> rangeFilters = processing.keyRangeFilters(grouperConnection.getConnection(),
+                configuration.getReconciliationParallelism());
+
+        if (rangeFilters.size() < 2) {
+
+            processing.executeQuery(null, resultsHandler, operationOptions, grouperConnection.getConnection());
+            return;
+        }
+
+        ParallelScan scan = new ParallelScan(operationOptions);
+        List<GrouperConnection> readConnections = new ArrayList<>();
+
+        try {
+            for (Filter rangeFilter : rangeFilters) {
+                GrouperConnection readConnection = openReadConnection(readConnections);
+
+                scan.addRange(rangeProcessingSupplier.get(), rangeFilter, readConnection.getConnection());
+            }
+
+            scan.execute(resultsHandler);
+        } finally {
+
+            scan.close();
+
+            for (GrouperConnection readConnection : readConnections) {
+
+                readConnection.dispose();
+            }
+        }
+    }
+
+    /**
+     * Borrows an additional pooled connection, which is added to the read connections to be disposed after
+     * the operation. The connection sees the same data as the connection of the operation, in case the operation
+     * reads a snapshot, the snapshot is exported by the first read connection joining it.
+     */
+    private GrouperConnection openReadConnection(List<GrouperConnection> readConnections) {
+        GrouperConnection readConnection = new GrouperConnection(configuration);
+        String snapshot = grouperConnection.exportSnapshot();
+
+        readConnections.add(readConnection);
+
+        if (snapshot != null) {
+
+            readConnection.joinSnapshot(snapshot);
+        }
+
+        return readConnection;
+    }
+
+    /**
+     * Basic test operation which uses a simple query to evaluate if the connector configuration is valid and
+     * the connection is working.
+     */
+    @Override
+    public void test() {
+        LOG.info("Executing test operation.");
+        configuration.validate();
+
+        try {
+            grouperConnection.test();
+        } finally {
+
+            // The connection goes back to the pool, the connector instance stays usable after the test
+            grouperConnection.release();
+        }
+
+        LOG.ok("Test OK");
+    }
+
+    @Override
+    public void testPartialConfiguration() {
+        // Test method would be equal to 'test()', so left empty so there is no additional overhead.
+
+    }
+
+    /**
+     * Method generates a set of initial configuration values. These can be used in the interaction with the remote
+     * system or can be overriden. Also the method produces a list of names of the auxiliary attributes present in the auxiliary
+     * attribute tables. It is then possible to choose from this list which attributes should be present in the
+     * resource schema.
+     */
+    @Override
+    public Map<String, SuggestedValues> discoverConfiguration() {
+        Map<String, SuggestedValues> suggestions = new HashMap<>();
+
+        Integer connectionValidTimeout = configuration.getConnectionValidTimeout();
+        Boolean excludeDeletedObjects = configuration.getExcludeDeletedObjects();
+        Boolean enableIdBasedPaging = configuration.getEnableIdBasedPaging();
+
+        if (connectionValidTimeout != null) {
+
+            suggestions.put("connectionValidTimeout", SuggestedValuesBuilder.buildOpen(connectionValidTimeout));
+        } else {
+
+            // Default for connectionValidTimeout
+            suggestions.put("connectionValidTimeout", SuggestedValuesBuilder.buildOpen("10"));
+        }
+
+        if (excludeDeletedObjects != null) {
+
+            suggestions.put("excludeDeletedObjects", SuggestedValuesBuilder.buildOpen(excludeDeletedObjects));
+        } else {
+
+            suggestions.put("excludeDeletedObjects", SuggestedValuesBuilder.buildOpen(true));
+        }
+
+        if (enableIdBasedPaging != null) {
+
+            suggestions.put("enableIdBasedPaging", SuggestedValuesBuilder.buildOpen(enableIdBasedPaging));
+        } else {
+
+            suggestions.put("enableIdBasedPaging", SuggestedValuesBuilder.buildOpen(false));
+        }
+
+        try {
+            suggestions.put("extendedGroupProperties", SuggestedValuesBuilder.buildOpen(
+                    fetchExtensionAttributes(GroupProcessing.O_CLASS) != null ?
+                            fetchExtensionAttributes(GroupProcessing.O_CLASS).toArray(new String[0]) : null
+            ));
+
+            suggestions.put("extendedSubjectProperties", SuggestedValuesBuilder.buildOpen(
+                    fetchExtensionAttributes(SubjectProcessing.O_CLASS) != null ?
+                            fetchExtensionAttributes(SubjectProcessing.O_CLASS).toArray(new String[0]) : null
+            ));
+        } finally {
+
+            grouperConnection.release();
+        }
+
+        return suggestions;
+    }
+
+    private Set<String> fetchExtensionAttributes(ObjectClass oClass) {
+        LOG.info("Fetching extension attributes for the object class {0}", oClass);
+
+        if (oClass.equals(GroupProcessing.O_CLASS)) {
+
+            GroupProcessing processing = new GroupProcessing(configuration);
+
+            try {
+                return processing.fetchExtensionSchema(grouperConnection.getConnection());
+
+            } catch (SQLException e) {
+
+                String errMessage = "Exception occurred while fetching the extension attributes for dynamic schema " +
+                        "evaluation. The object class being handled: " + oClass;
+
+                throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+            }
+
+        } else if (oClass.equals(SubjectProcessing.O_CLASS)) {
+
+            SubjectProcessing processing = new SubjectProcessing(configuration);
+
+            try {
+                return processing.fetchExtensionSchema(grouperConnection.getConnection());
+
+            } catch (SQLException e) {
+                String errMessage = "Exception occurred while fetching the extension attributes for dynamic schema " +
+                        "evaluation. The object class being handled: " + oClass;
+
+                throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+            }
+
+        } else {
+
+            throw new ConnectorException("Unexpected object class used in extension attribute evaluation.");
+        }
+
+    }
+
+    /**
+     * Implementation of SyncOP sync method. Method requests changes which are used for synchronization of data.
+     * Synchronization events are ordered based on a 'modified' time stamp column which values are
+     * used as the {@link SyncToken} value. The syncToken is used also in each call, when a query is generated to fetch
+     * rows marked with a time stamp value following the value of syncToken.
+     * Based on the {@link ObjectClass}, the specific tables and table data related to the concrete object class is
+     * selected. Based on the {@link OperationOptions}, the method might fetch auxiliary attributes and use pagination.
+     * The "deleted" column is used to mark objects or rows related to an object as removed.
+     */
+    @Override
+    public void sync(ObjectClass objectClass, SyncToken syncToken, SyncResultsHandler syncResultsHandler,
+                     OperationOptions operationOptions) {
+
+        LOG.ok("Evaluation of SYNC op method regarding the object class {0} with the following options: {1}", objectClass
+                , operationOptions);
+
+        checkSyncObjectClass(objectClass);
+
+        try {
+            // Evaluated before any connection is used, an unchanged object class needs neither a snapshot nor a query
+            if (isUnchanged(grouperConnection.getChangeListener(), objectClass, syncToken)) {
+
+                return;
+            }
+
+            // The replication stream is not a part of any snapshot, the changes are read as they are streamed
+            if (configuration.getEnableSnapshotReads()
+                    && !GrouperConfiguration.SYNC_STRATEGY_REPLICATION.equals(configuration.getSyncStrategy())) {
+
+                grouperConnection.beginSnapshot();
+            }
+
+            if (syncToken == null) {
+
+                LOG.ok("Empty token, fetching latest sync token");
+                syncToken = getLatestSyncToken(objectClass, grouperConnection);
+
+            }
+
+            sync(objectClass, syncToken, syncResultsHandler, operationOptions, grouperConnection);
+        } finally {
+
+            grouperConnection.release();
+        }
+    }
+
+    private void sync(ObjectClass objectClass, SyncToken syncToken, SyncResultsHandler syncResultsHandler,
+                      OperationOptions operationOptions, GrouperConnection grouperConnection) {
+
+        GrouperChangeListener listener = grouperConnection.getChangeListener();
+
+        if (listener == null) {
+
+            coalesceChanges(objectClass, syncToken, syncResultsHandler, operationOptions, grouperConnection, null);
+            return;
+        }
+
+        // The generation is taken before any change is read, so changes notified meanwhile are not skipped later
+        long generation = listener.getGeneration();
+        TrackingSyncResultsHandler trackingHandler = new TrackingSyncResultsHandler(syncResultsHandler, syncToken);
+
+        coalesceChanges(objectClass, syncToken, trackingHandler, operationOptions, grouperConnection, listener);
+
+        if (!trackingHandler.isRefused()) {
+
+            List<String> objectClassNames = objectClass.is(ObjectClass.ALL_NAME) ?
+                    List.of(ObjectProcessing.SUBJECT_NAME, ObjectProcessing.GROUP_NAME) :
+                    List.of(objectClass.getObjectClassValue());
+
+            for (String objectClassName : objectClassNames) {
+
+                listener.markSynchronized(syncKey(objectClass, objectClassName),
+                        trackingHandler.getLastSyncToken(), generation);
+            }
+        }
+    }
+
+    /**
+     * Reads the changes, in case the coalescing window is set the repeated changes of the objects are coalesced
+     * across the whole synchronization, the object is passed on once with its latest change.
+     */
+    private void coalesceChanges(ObjectClass objectClass, SyncToken syncToken,
+                                 SyncResultsHandler syncResultsHandler, OperationOptions operationOptions,
+                                 GrouperConnection grouperConnection, GrouperChangeListener listener) {
+
+        Integer windowSize = configuration.getSyncCoalescingWindow();
+
+        if (windowSize == null) {
+
+            syncChanges(objectClass, syncToken, syncResultsHandler, operationOptions, grouperConnection, listener);
+            return;
+        }
+
+        CoalescingSyncResultsHandler coalescingHandler = new CoalescingSyncResultsHandler(syncResultsHandler,
+                windowSize);
+
+        syncChanges(objectClass, syncToken, coalescingHandler, operationOptions, grouperConnection, listener);
+        coalescingHandler.flush();
+    }
+
+    private void syncChanges(ObjectClass objectClass, SyncToken syncToken, SyncResultsHandler syncResultsHandler,
+                             OperationOptions operationOptions, GrouperConnection grouperConnection,
+                             GrouperChangeListener listener) {
+
+        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
+            GroupProcessing groupProcessing = new GroupProcessing(configuration);
+
+            if (isLogSync()) {
+
+                syncLog(Map.of(GroupProcessing.O_CLASS, groupProcessing), syncToken, syncResultsHandler, operationOptions,
+                        grouperConnection, false);
+            } else {
+
+                groupProcessing.sync(syncToken, syncResultsHandler, operationOptions,
+                        grouperConnection.getConnection());
+            }
+
+        } else if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
+            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
+
+            if (isLogSync()) {
+
+                syncLog(Map.of(SubjectProcessing.O_CLASS, subjectProcessing), syncToken, syncResultsHandler, operationOptions,
+                        grouperConnection, false);
+            } else {
+
+                subjectProcessing.sync(syncToken, syncResultsHandler, operationOptions,
+                        grouperConnection.getConnection());
+            }
+
+        } else if (objectClass.is(ObjectClass.ALL_NAME)) {
+
+            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
+            GroupProcessing groupProcessing = new GroupProcessing(configuration);
+            boolean subjectsUnchanged = isUnchanged(listener, objectClass, ObjectProcessing.SUBJECT_NAME, syncToken,
+                    subjectProcessing);
+            boolean groupsUnchanged = isUnchanged(listener, objectClass, ObjectProcessing.GROUP_NAME, syncToken,
+                    groupProcessing);
+
+            if (subjectsUnchanged && groupsUnchanged) {
+
+                return;
+            }
+
+            if (isLogSync()) {
+                Map<ObjectClass, ObjectProcessing> processings = new LinkedHashMap<>();
+
+                if (!groupsUnchanged) {
+
+                    processings.put(GroupProcessing.O_CLASS, groupProcessing);
+                }
+
+                if (!subjectsUnchanged) {
+
+                    processings.put(SubjectProcessing.O_CLASS, subjectProcessing);
+                }
+
+                syncLog(processings, syncToken, syncResultsHandler, operationOptions, grouperConnection, true);
+                return;
+            }
+
+            Integer pageSize = subjectProcessing.getSyncPageSize(operationOptions);
+            GrouperSyncToken grouperSyncToken = GrouperSyncToken.parse(syncToken);
+
+            // Both object classes advance one token
+            subjectProcessing.setGrouperSyncToken(grouperSyncToken);
+            groupProcessing.setGrouperSyncToken(grouperSyncToken);
+
+            Connection connection = grouperConnection.getConnection();
+            List<SyncCursor> cursors = new ArrayList<>();
+            List<GrouperConnection> readConnections = new ArrayList<>();
+
+            try {
+                // Deleted objects are read by the tombstone cursors, without fetching the full objects
+                if (!subjectsUnchanged) {
+
+                    cursors.add(openLiveSyncCursor(subjectProcessing, () -> new SubjectProcessing(configuration),
+                            grouperSyncToken, syncToken, operationOptions, connection, pageSize, readConnections));
+                    cursors.add(new SyncCursor(subjectProcessing, subjectProcessing.tombstoneQuery(syncToken,
+                            SubjectProcessing.O_CLASS), syncToken, operationOptions, connection, pageSize, true));
+                }
+
+                if (!groupsUnchanged) {
+
+                    cursors.add(openLiveSyncCursor(groupProcessing, () -> new GroupProcessing(configuration),
+                            grouperSyncToken, syncToken, operationOptions, connection, pageSize, readConnections));
+                    cursors.add(new SyncCursor(groupProcessing, groupProcessing.tombstoneQuery(syncToken,
+                            GroupProcessing.O_CLASS), syncToken, operationOptions, connection, pageSize, true));
+                }
+
+                SyncCursor.merge(cursors, syncResultsHandler);
+            } finally {
+
+                for (SyncCursor cursor : cursors) {
+
+                    cursor.close();
+                }
+
+                for (GrouperConnection readConnection : readConnections) {
+
+                    readConnection.dispose();
+                }
+            }
+
+        } else {
+
+            throw new UnsupportedOperationException("Attribute of type" + objectClass + "is not supported. " +
+                    "Only " + GroupProcessing.GROUP_NAME + " and " + ObjectProcessing.SUBJECT_NAME + " objectclass " +
+                    "is supported for SyncOp currently.");
+        }
+    }
+
+    /**
+     * Opens the cursor of the changed objects of the ALL object class sync. In case the parallel sync is enabled,
+     * the cursor reads ahead on its own pooled connection, using its own instance of the processing, which is
+     * added to the read connections to be disposed after the sync.
+     */
+    private SyncCursor openLiveSyncCursor(ObjectProcessing processing,
+                                          Supplier<ObjectProcessing> readAheadProcessingSupplier,
+                                          GrouperSyncToken grouperSyncToken, SyncToken syncToken,
+                                          OperationOptions operationOptions, Connection connection,
+                                          Integer pageSize, List<GrouperConnection> readConnections) {
+
+        if (!configuration.getEnableParallelSync()) {
+
+            return new SyncCursor(processing, processing.syncQuery(syncToken, operationOptions, connection, true),
+                    syncToken, operationOptions, connection, pageSize, true);
+        }
+
+        GrouperConnection readConnection = openReadConnection(readConnections);
+
+        ObjectProcessing readAheadProcessing = readAheadProcessingSupplier.get();
+        readAheadProcessing.setGrouperSyncToken(grouperSyncToken);
+
+        SyncCursor cursor = new SyncCursor(readAheadProcessing, readAheadProcessing.syncQuery(syncToken,
+                operationOptions, readConnection.getConnection(), true), syncToken, operationOptions,
+                readConnection.getConnection(), pageSize, true);
+
+        cursor.startReadAhead();
+        return cursor;
+    }
+
+    /**
+     * Evaluates if the changes are read from a log of the changes (the change log table or the replication slot),
+     * instead of being derived from the modification time stamps of the tables.
+     */
+    private boolean isLogSync() {
+
+        return GrouperConfiguration.SYNC_STRATEGY_CHANGE_LOG.equals(configuration.getSyncStrategy())
+                || GrouperConfiguration.SYNC_STRATEGY_REPLICATION.equals(configuration.getSyncStrategy());
+    }
+
+    /**
+     * The replication slot is shared by all the object classes, a synchronization of a single object class would
+     * confirm the changes of the other object class in the slot as well. Only the "ALL" object class is
+     * synchronized from the slot.
+     */
+    private void checkSyncObjectClass(ObjectClass objectClass) {
+
+        if (GrouperConfiguration.SYNC_STRATEGY_REPLICATION.equals(configuration.getSyncStrategy())
+                && !objectClass.is(ObjectClass.ALL_NAME)) {
+
+            throw new UnsupportedOperationException("Object class " + objectClass + " is not supported by the "
+                    + GrouperConfiguration.SYNC_STRATEGY_REPLICATION + " sync strategy. Only the "
+                    + ObjectClass.ALL_NAME + " object class is supported, the replication slot is shared by all "
+                    + "the object classes.");
+        }
+    }
+
+    private void syncLog(Map<ObjectClass, ObjectProcessing> processings, SyncToken syncToken,
+                         SyncResultsHandler syncResultsHandler, OperationOptions operationOptions,
+                         GrouperConnection grouperConnection, boolean isAllObjectClass) {
+
+        if (GrouperConfiguration.SYNC_STRATEGY_CHANGE_LOG.equals(configuration.getSyncStrategy())) {
+
+            new ChangeLogProcessing(configuration, processings).sync(syncToken, syncResultsHandler, operationOptions,
+                    grouperConnection.getConnection(), isAllObjectClass);
+            return;
+        }
+
+        try (Connection replicationConnection = grouperConnection.openReplicationConnection()) {
+
+            new ReplicationProcessing(configuration, processings).sync(syncToken, syncResultsHandler,
+                    operationOptions, grouperConnection.getConnection(), replicationConnection, isAllObjectClass);
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred while closing the replication connection.";
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+    }
+
+    /**
+     * Evaluates if no change of the synchronized object classes was notified since the sync token. Only the state
+     * of the change listener is evaluated, no connection is borrowed.
+     */
+    private boolean isUnchanged(GrouperChangeListener listener, ObjectClass objectClass, SyncToken syncToken) {
+
+        if (listener == null || syncToken == null) {
+
+            return false;
+        }
+
+        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
+
+            return isUnchanged(listener, objectClass, ObjectProcessing.GROUP_NAME, syncToken,
+                    new GroupProcessing(configuration));
+        } else if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
+
+            return isUnchanged(listener, objectClass, ObjectProcessing.SUBJECT_NAME, syncToken,
+                    new SubjectProcessing(configuration));
+        } else if (objectClass.is(ObjectClass.ALL_NAME)) {
+
+            return isUnchanged(listener, objectClass, ObjectProcessing.SUBJECT_NAME, syncToken,
+                    new SubjectProcessing(configuration)) && isUnchanged(listener, objectClass,
+                    ObjectProcessing.GROUP_NAME, syncToken, new GroupProcessing(configuration));
+        }
+
+        return false;
+    }
+
+    private boolean isUnchanged(GrouperChangeListener listener, ObjectClass objectClass, String objectClassName,
+                                SyncToken syncToken, ObjectProcessing processing) {
+
+        if (listener != null && listener.isSynchronized(syncKey(objectClass, objectClassName), syncToken,
+                processing.getSyncTables())) {
+
+            LOG.ok("No change notified for the object class {0} since the sync token {1}, skipping the queries.",
+                    objectClassName, syncToken);
+            return true;
+        }
+
+        return false;
+    }
+
+    private static String syncKey(ObjectClass objectClass, String objectClassName) {
+
+        return objectClass.is(ObjectClass.ALL_NAME) ? ObjectClass.ALL_NAME + "." + objectClassName : objectClassName;
+    }
+
+    /**
+     * Method fetches the latest "modified" time stamp value of the specific object class, and based on it
+     * creates and instance of {@link SyncToken}. In case of the "ALL" {@link ObjectClass}, the token will be the
+     * latest one of the tables of the Subject and Group object classes, fetched by a single query.
+     */
+    @Override
+    public SyncToken getLatestSyncToken(ObjectClass objectClass) {
+
+        checkSyncObjectClass(objectClass);
+
+        try {
+
+            return getLatestSyncToken(objectClass, grouperConnection);
+        } finally {
+
+            grouperConnection.release();
+        }
+    }
+
+    private SyncToken getLatestSyncToken(ObjectClass objectClass, GrouperConnection grouperConnection) {
+        ObjectProcessing processing;
+        Map<String, String> watermarkTables = new LinkedHashMap<>();
+
+        if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
+
+            processing = new GroupProcessing(configuration);
+            watermarkTables.putAll(processing.getWatermarkTables());
+
+        } else if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
+
+            processing = new SubjectProcessing(configuration);
+            watermarkTables.putAll(processing.getWatermarkTables());
+
+        } else if (objectClass.is(ObjectClass.ALL_NAME)) {
+
+            GroupProcessing groupProcessing = new GroupProcessing(configuration);
+            SubjectProcessing subjectProcessing = new SubjectProcessing(configuration);
+
+            // The tables of both object classes are looked up at once, the shared membership table only once
+            watermarkTables.putAll(subjectProcessing.getWatermarkTables());
+            watermarkTables.putAll(groupProcessing.getWatermarkTables());
+            processing = subjectProcessing;
+
+        } else {
+
+            throw new UnsupportedOperationException("Attribute of type" + objectClass + "is not supported. " +
+                    "Only " + GroupProcessing.GROUP_NAME + " and " + ObjectProcessing.SUBJECT_NAME + " objectclass " +
+                    "is supported for SyncOp currently.");
+        }
+
+        if (GrouperConfiguration.SYNC_STRATEGY_CHANGE_LOG.equals(configuration.getSyncStrategy())) {
+
+            return new ChangeLogProcessing(configuration, Map.of(objectClass, processing))
+                    .getLatestSyncToken(grouperConnection.getConnection());
+        } else if (GrouperConfiguration.SYNC_STRATEGY_REPLICATION.equals(configuration.getSyncStrategy())) {
+
+            return new ReplicationProcessing(configuration, Map.of(objectClass, processing))
+                    .getLatestSyncToken(grouperConnection.getConnection());
+        }
+
+        return processing.getLatestSyncToken(grouperConnection.getConnection(), watermarkTables);
+    }
+
+    @Override
+    public void checkAlive() {
+
+        try {
+            if (grouperConnection == null) {
+
+                throw new ConnectionFailedException("Instance of grouper connection does not exist");
+            } else if (grouperConnection.isClosed()) {
+
+                throw new ConnectionFailedException("Database connection has been closed");
+            }
+        } catch (SQLException e) {
+
+            throw new ConnectionFailedException("An exception occurred during check-alive. ",e);
+        }
+    }
+
+    /**
+     * Handler recording the token of the last change accepted by the wrapped handler.
+     */
+    private static class TrackingSyncResultsHandler implements SyncTokenResultsHandler {
+        private final SyncResultsHandler syncResultsHandler;
+        private SyncToken lastSyncToken;
+        private boolean refused = false;
+
+        private TrackingSyncResultsHandler(SyncResultsHandler syncResultsHandler, SyncToken syncToken) {
+            this.syncResultsHandler = syncResultsHandler;
+            this.lastSyncToken = syncToken;
+        }
+
+        @Override
+        public boolean handle(SyncDelta syncDelta) {
+
+            if (!syncResultsHandler.handle(syncDelta)) {
+
+                refused = true;
+                return false;
+            }
+
+            lastSyncToken = syncDelta.getToken();
+            return true;
+        }
+
+        @Override
+        public void handleResult(SyncToken syncToken) {
+
+            lastSyncToken = syncToken;
+            ObjectProcessing.checkpoint(syncResultsHandler, syncToken);
+        }
+
+        private SyncToken getLastSyncToken() {
+            return lastSyncToken;
+        }
+
+        private boolean isRefused() {
+            return refused;
+        }
+    }
+}
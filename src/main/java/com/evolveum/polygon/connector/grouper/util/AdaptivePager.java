@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import org.identityconnectors.common.logging.Log;
+
+/**
+ * Adapts the size of the next page to the target page latency, based on the measured time of the previous page.
+ * The size is scaled by the ratio of the target latency and the measured one, by at most a factor of two per page,
+ * and is kept between the minimal page size and the configured page size.
+ * <p>
+ * The page size limits either the rows of a page (search) or its objects (sync). Each object of a search page
+ * is read as several joined rows, so the page is not shrunk below two objects of the measured amount of rows per
+ * object, otherwise a single object would fill the whole page.
+ * Without the target page latency, the configured page size is used.
+ */
+public class AdaptivePager {
+    private static final Log LOG = Log.getLog(AdaptivePager.class);
+    private static final double MAX_SCALE = 2.0;
+    private static final double MIN_SCALE = 0.5;
+
+    private final Integer targetLatency;
+    private final int minPageSize;
+
+    public AdaptivePager(GrouperConfiguration configuration) {
+        this.targetLatency = configuration.getTargetPageLatency();
+        this.minPageSize = configuration.getMinPageSize();
+    }
+
+    public boolean isEnabled() {
+        return targetLatency != null;
+    }
+
+    /**
+     * Returns the size of the next page.
+     *
+     * @param pageSize    size of the measured page
+     * @param maxPageSize configured page size, the upper bound of the page size
+     * @param elapsed     time in nanoseconds of reading the measured page
+     * @param rows        rows returned by the measured page
+     * @param objects     objects read from the rows of the measured page
+     */
+    public int nextPageSize(int pageSize, int maxPageSize, long elapsed, int rows, int objects) {
+
+        if (!isEnabled() || objects == 0) {
+
+            return pageSize;
+        }
+
+        double latency = Math.max(elapsed / 1_000_000d, 1d);
+        double scale = Math.min(Math.max(targetLatency / latency, MIN_SCALE), MAX_SCALE);
+        double amplification = (double) rows / objects;
+        int lowerBound = Math.max(minPageSize, (int) Math.ceil(2 * amplification));
+        int nextPageSize = (int) Math.min(Math.max(Math.round(pageSize * scale), lowerBound), maxPageSize);
+
+        LOG.ok("Page of {0} rows, {1} rows per object, read in {2} ms, the next page size: {3}", rows,
+                amplification, latency, nextPageSize);
+        return nextPageSize;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Sync engine consuming an append only change log table, filled by triggers of the object, membership and
+ * extension attribute tables. Each entry records the sequence number, the object class ("group" or "subject"),
+ * the identifier of the changed object and the change type. Change type "DELETE" marks the removal of the object
+ * row, any other change type is handled as a create or update of the object.
+ * <p>
+ * The entries are read in the sequence order using keyset paging, the sequence number of the entry is used as
+ * the {@link SyncToken} value. Unlike the time stamp based sync, hard deleted objects are synchronized as well.
+ * The repeated entries of an object within a page are passed on as a single change.
+ * <p>
+ * The sequence number is allocated when the entry is written, not when its transaction commits. An entry committed
+ * after an entry with a higher sequence number was read follows the token already, so it is never read.
+ */
+public class ChangeLogProcessing {
+    private static final Log LOG = Log.getLog(ChangeLogProcessing.class);
+    private static final String NO_PREFIX_TABLE_CHANGE_LOG_NAME = "_mp_change_log";
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    protected static final String ATTR_SEQUENCE = "sequence_number";
+    protected static final String ATTR_OBJECT_CLASS = "object_class";
+    protected static final String ATTR_OBJECT_ID = "object_id";
+    protected static final String ATTR_CHANGE_TYPE = "change_type";
+    protected static final String CHANGE_TYPE_DELETE = "DELETE";
+
+    private final GrouperConfiguration configuration;
+    private final Map<String, ObjectProcessing> processings = new LinkedHashMap<>();
+    private final Map<String, ObjectClass> objectClasses = new HashMap<>();
+    private final String tableName;
+
+    public ChangeLogProcessing(GrouperConfiguration configuration, Map<ObjectClass, ObjectProcessing> processings) {
+        this.configuration = configuration;
+        this.tableName = configuration.getTablePrefix() + NO_PREFIX_TABLE_CHANGE_LOG_NAME;
+
+        for (ObjectClass objectClass : processings.keySet()) {
+
+            this.processings.put(objectClass.getObjectClassValue(), processings.get(objectClass));
+            this.objectClasses.put(objectClass.getObjectClassValue(), objectClass);
+        }
+    }
+
+    public void sync(SyncToken syncToken, SyncResultsHandler syncResultsHandler, OperationOptions operationOptions,
+                     Connection connection, boolean isAllObjectClass) {
+
+        Long sequence = getSequence(syncToken);
+        Integer pageSize = processings.values().iterator().next().getSyncPageSize(operationOptions);
+
+        if (pageSize == null) {
+
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+
+        LOG.ok("Reading the change log {0} following the sequence number {1}, page size: {2}", tableName,
+                sequence, pageSize);
+
+        AdaptivePager pager = new AdaptivePager(configuration);
+        int maxPageSize = pageSize;
+
+        while (true) {
+            long started = System.nanoTime();
+            List<ChangeLogEntry> entries = fetchEntries(connection, sequence, pageSize);
+
+            if (entries.isEmpty()) {
+
+                return;
+            }
+
+            List<ChangeLogEntry> changes = latestEntries(entries);
+            Map<String, Map<String, GrouperObject>> objects = fetchObjects(changes, operationOptions, connection,
+                    isAllObjectClass);
+            long elapsed = System.nanoTime() - started;
+
+            for (ChangeLogEntry entry : changes) {
+                ObjectProcessing processing = processings.get(entry.objectClass);
+                ObjectClass objectClass = objectClasses.get(entry.objectClass);
+                GrouperObject grouperObject = CHANGE_TYPE_DELETE.equals(entry.changeType) ? null :
+                        objects.get(entry.objectClass).get(entry.objectId);
+
+                // Objects removed later on are not found any more, a delete is passed on for them as well
+                if (grouperObject == null) {
+
+                    grouperObject = new GrouperObject();
+                    grouperObject.setIdentifier(entry.objectId);
+                    grouperObject.setObjectClass(objectClass);
+                    grouperObject.setDeleted(true);
+                }
+
+                if (!processing.sync(syncResultsHandler, objectClass, grouperObject,
+                        new SyncToken(entry.sequence))) {
+
+                    return;
+                }
+            }
+
+            sequence = entries.get(entries.size() - 1).sequence;
+            ObjectProcessing.checkpoint(syncResultsHandler, new SyncToken(sequence));
+
+            if (entries.size() < pageSize) {
+
+                return;
+            }
+
+            pageSize = pager.nextPageSize(pageSize, maxPageSize, elapsed, entries.size(), changes.size());
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest change log entry, null in case the change log is empty.
+     */
+    public SyncToken getLatestSyncToken(Connection connection) {
+        String query = QueryBuilder.buildLatestChangeLogQuery(tableName);
+
+        try (ReadTransaction transaction = new ReadTransaction(connection, configuration.getFetchSize());
+             PreparedStatement prepareStatement = transaction.prepareStatement(query);
+             ResultSet result = prepareStatement.executeQuery()) {
+
+            if (result.next()) {
+                long sequence = result.getLong(1);
+
+                if (!result.wasNull()) {
+
+                    return new SyncToken(sequence);
+                }
+            }
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred during the Get Latest Sync Token operation. " +
+                    "The change log table being handled: " + tableName;
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+
+        return null;
+    }
+
+    private List<ChangeLogEntry> fetchEntries(Connection connection, Long sequence, Integer pageSize) {
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        String query = QueryBuilder.buildChangeLogQuery(tableName);
+        String[] objectClassNames = processings.keySet().toArray(new String[0]);
+
+        try (ReadTransaction transaction = new ReadTransaction(connection, configuration.getFetchSize());
+             PreparedStatement prepareStatement = transaction.prepareStatement(query,
+                     List.of(sequence, objectClassNames, pageSize));
+             ResultSet result = prepareStatement.executeQuery()) {
+
+            while (result.next()) {
+
+                entries.add(new ChangeLogEntry(result.getLong(1), result.getString(2), result.getString(3),
+                        result.getString(4)));
+            }
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred during the Sync (liveSync) operation, while reading the " +
+                    "change log table: " + tableName;
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+
+        LOG.ok("Fetched {0} change log entries following the sequence number {1}", entries.size(), sequence);
+        return entries;
+    }
+
+    /**
+     * Keeps only the latest entry of each object, in the order of the latest entries. The repeated changes of an
+     * object within the page are passed on once, with the sequence number of its latest entry, as the object is
+     * fetched in its current state anyway.
+     */
+    private List<ChangeLogEntry> latestEntries(List<ChangeLogEntry> entries) {
+        Map<String, ChangeLogEntry> latestEntries = new LinkedHashMap<>();
+
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.objectClass + "|" + entry.objectId;
+
+            latestEntries.remove(key);
+            latestEntries.put(key, entry);
+        }
+
+        LOG.ok("Change log entries: {0}, changed objects: {1}", entries.size(), latestEntries.size());
+        return new ArrayList<>(latestEntries.values());
+    }
+
+    /**
+     * Fetches the full objects changed by the entries, per object class. Objects removed by the entries are not
+     * fetched.
+     */
+    private Map<String, Map<String, GrouperObject>> fetchObjects(List<ChangeLogEntry> entries,
+                                                                 OperationOptions operationOptions,
+                                                                 Connection connection, boolean isAllObjectClass) {
+        Map<String, Map<String, GrouperObject>> changedObjects = new HashMap<>();
+        Map<String, Map<String, GrouperObject>> objects = new HashMap<>();
+
+        for (String objectClassName : processings.keySet()) {
+
+            changedObjects.put(objectClassName, new LinkedHashMap<>());
+            objects.put(objectClassName, new HashMap<>());
+        }
+
+        for (ChangeLogEntry entry : entries) {
+
+            if (!CHANGE_TYPE_DELETE.equals(entry.changeType)) {
+                GrouperObject grouperObject = new GrouperObject();
+
+                grouperObject.setIdentifier(entry.objectId);
+                changedObjects.get(entry.objectClass).put(entry.objectId, grouperObject);
+            } else {
+
+                changedObjects.get(entry.objectClass).remove(entry.objectId);
+            }
+        }
+
+        for (String objectClassName : changedObjects.keySet()) {
+            Map<String, GrouperObject> changed = changedObjects.get(objectClassName);
+
+            if (!changed.isEmpty()) {
+
+                objects.get(objectClassName).putAll(processings.get(objectClassName).fetchFullObjects(changed,
+                        operationOptions, connection, isAllObjectClass));
+            }
+        }
+
+        return objects;
+    }
+
+    private Long getSequence(SyncToken syncToken) {
+
+        if (syncToken == null || syncToken.getValue() == null) {
+
+            return 0L;
+        }
+
+        Object value = syncToken.getValue();
+
+        try {
+
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+
+            throw new InvalidAttributeValueException("Unexpected format of the change log sync token, a sequence " +
+                    "number is expected: " + value);
+        }
+    }
+
+    private static class ChangeLogEntry {
+        private final Long sequence;
+        private final String objectClass;
+        private final String objectId;
+        private final String changeType;
+
+        private ChangeLogEntry(Long sequence, String objectClass, String objectId, String changeType) {
+            this.sequence = sequence;
+            this.objectClass = objectClass;
+            this.objectId = objectId;
+            this.changeType = changeType;
+        }
+    }
+}
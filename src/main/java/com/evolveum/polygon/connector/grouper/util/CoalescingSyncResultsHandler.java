@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handler coalescing the repeated changes of an object within a window of the latest changes. The changes are
+ * held in the order of their latest occurrence, a repeated change of an object replaces its previous change
+ * and moves to the end of the window. The oldest change is passed on once the window is full, the rest of the
+ * changes are passed on by {@link #flush()}.
+ * <p>
+ * The tokens of the passed on changes keep their order. A change replaced by a later one is not lost in case
+ * the synchronization stops before the later change is passed on, the later change follows the last passed on
+ * token, so it is read again by the next synchronization. For the same reason a checkpoint of the sync engine is
+ * held back until the changes preceding it are passed on, see {@link #handleResult(SyncToken)}.
+ */
+public class CoalescingSyncResultsHandler implements SyncTokenResultsHandler {
+    private static final Log LOG = Log.getLog(CoalescingSyncResultsHandler.class);
+
+    private final SyncResultsHandler syncResultsHandler;
+    private final int windowSize;
+    private final Map<String, SyncDelta> window = new LinkedHashMap<>();
+    private SyncToken checkpoint;
+    private boolean refused = false;
+    private int coalesced = 0;
+
+    public CoalescingSyncResultsHandler(SyncResultsHandler syncResultsHandler, int windowSize) {
+        this.syncResultsHandler = syncResultsHandler;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public boolean handle(SyncDelta syncDelta) {
+
+        if (refused) {
+
+            return false;
+        }
+
+        String key = syncDelta.getObjectClass().getObjectClassValue() + "|" + syncDelta.getUid().getUidValue();
+
+        if (window.remove(key) != null) {
+
+            coalesced++;
+        }
+
+        window.put(key, syncDelta);
+
+        if (window.size() > windowSize) {
+            Iterator<SyncDelta> iterator = window.values().iterator();
+            SyncDelta oldest = iterator.next();
+
+            iterator.remove();
+            return pass(oldest);
+        }
+
+        return true;
+    }
+
+    /**
+     * Holds the checkpoint in case there are changes in the window, these have to be passed on before the
+     * checkpoint is. A held checkpoint is passed on by {@link #flush()}.
+     */
+    @Override
+    public void handleResult(SyncToken syncToken) {
+
+        if (refused) {
+
+            return;
+        }
+
+        if (window.isEmpty()) {
+
+            checkpoint = null;
+            ObjectProcessing.checkpoint(syncResultsHandler, syncToken);
+        } else {
+
+            checkpoint = syncToken;
+        }
+    }
+
+    /**
+     * Passes on all the changes held in the window and the checkpoint held since. Returns false in case the handler refused a change.
+     */
+    public boolean flush() {
+
+        LOG.ok("Flushing {0} changes of the coalescing window, {1} repeated changes were coalesced",
+                window.size(), coalesced);
+
+        Iterator<SyncDelta> iterator = window.values().iterator();
+
+        while (iterator.hasNext() && !refused) {
+            SyncDelta syncDelta = iterator.next();
+
+            iterator.remove();
+            pass(syncDelta);
+        }
+
+        window.clear();
+
+        if (!refused && checkpoint != null) {
+
+            ObjectProcessing.checkpoint(syncResultsHandler, checkpoint);
+            checkpoint = null;
+        }
+
+        return !refused;
+    }
+
+    private boolean pass(SyncDelta syncDelta) {
+
+        if (!syncResultsHandler.handle(syncDelta)) {
+
+            refused = true;
+            window.clear();
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * Mapping of the columns of a result set to the parts of a {@link GrouperObject} which they populate. The plan
+ * is computed once per result set from its metadata, so the rows are read without any evaluation of the column
+ * names. The plan is kept by the reader of the result set, so readers running in parallel do not share it.
+ */
+public class ColumnPlan {
+    private static final Log LOG = Log.getLog(ColumnPlan.class);
+
+    public enum Target {
+        UID,
+        NAME,
+        EXTENSION_NAME,
+        EXTENSION_VALUE,
+        DELETED,
+        MEMBERSHIP_DELETED,
+        EXTENSION_DELETED,
+        LATEST_TIMESTAMP,
+        MODIFIED,
+        MEMBERSHIP,
+        LONG_ATTRIBUTE,
+        STRING_ATTRIBUTE,
+        AGGREGATED_MEMBERSHIP,
+        AGGREGATED_EXTENSION_NAME,
+        AGGREGATED_EXTENSION_VALUE,
+        IGNORED
+    }
+
+    private final String uidName;
+    private final String nameName;
+    private final Map<String, Class> columns;
+    private final Map<String, String> renameSet;
+    private final Target[] targets;
+    private final String[] attributeNames;
+
+    public ColumnPlan(ResultSet resultSet, String uidName, String nameName, Map<String, Class> columns,
+                      Map<String, String> renameSet, String mainTable, String membershipTable,
+                      String extensionTable, String membershipAttribute) throws SQLException {
+        this.uidName = uidName;
+        this.nameName = nameName;
+        this.columns = columns;
+        this.renameSet = renameSet;
+
+        ResultSetMetaData meta = resultSet.getMetaData();
+        int count = meta.getColumnCount();
+
+        targets = new Target[count + 1];
+        attributeNames = new String[count + 1];
+
+        for (int i = 1; i <= count; i++) {
+            String name = meta.getColumnName(i);
+            String tableName = null;
+
+            if (name.contains("$")) {
+
+                String[] nameParts = name.split("\\$");
+                tableName = nameParts[0];
+                name = nameParts[1];
+            }
+
+            attributeNames[i] = name;
+            targets[i] = evaluateTarget(i, name, tableName, meta.getColumnType(i) == Types.ARRAY, mainTable,
+                    membershipTable, extensionTable, membershipAttribute);
+        }
+
+        LOG.ok("Column plan computed for {0} columns", count);
+    }
+
+    private Target evaluateTarget(int i, String name, String tableName, boolean isArray, String mainTable,
+                                  String membershipTable, String extensionTable, String membershipAttribute) {
+        boolean isMainTable = tableName == null || mainTable.equals(tableName);
+
+        if (isArray) {
+
+            if (membershipTable.equals(tableName)) {
+
+                return Target.AGGREGATED_MEMBERSHIP;
+            } else if (ObjectProcessing.ATTR_EXT_NAME.equals(name)) {
+
+                return Target.AGGREGATED_EXTENSION_NAME;
+            } else if (ObjectProcessing.ATTR_EXT_VALUE.equals(name)) {
+
+                return Target.AGGREGATED_EXTENSION_VALUE;
+            }
+
+            return Target.IGNORED;
+        }
+
+        if (uidName != null && name.equals(uidName)) {
+
+            return isMainTable ? Target.UID : Target.IGNORED;
+        } else if (nameName != null && name.equals(nameName)) {
+
+            return isMainTable ? Target.NAME : Target.IGNORED;
+        } else if (ObjectProcessing.ATTR_EXT_NAME.equals(name)) {
+
+            return Target.EXTENSION_NAME;
+        } else if (ObjectProcessing.ATTR_EXT_VALUE.equals(name)) {
+
+            return Target.EXTENSION_VALUE;
+        } else if (ObjectProcessing.ATTR_DELETED.equals(name)) {
+
+            if (isMainTable) {
+
+                return Target.DELETED;
+            } else if (membershipTable.equals(tableName)) {
+
+                return Target.MEMBERSHIP_DELETED;
+            } else if (extensionTable.equals(tableName)) {
+
+                return Target.EXTENSION_DELETED;
+            }
+
+            return Target.IGNORED;
+        } else if (ObjectProcessing.ATTR_MODIFIED_LATEST.equals(name)) {
+
+            return Target.LATEST_TIMESTAMP;
+        }
+
+        if (!columns.containsKey(name)) {
+
+            return Target.IGNORED;
+        }
+
+        Class type = columns.get(name);
+
+        if (renameSet != null && renameSet.containsKey(name)) {
+
+            name = renameSet.get(name);
+            attributeNames[i] = name;
+        }
+
+        if (type.equals(Long.class)) {
+
+            if (name.equals(ObjectProcessing.ATTR_MODIFIED)) {
+
+                return Target.MODIFIED;
+            } else if (membershipAttribute.equals(name)) {
+
+                return Target.MEMBERSHIP;
+            }
+
+            return Target.LONG_ATTRIBUTE;
+        }
+
+        if (type.equals(String.class)) {
+
+            return Target.STRING_ATTRIBUTE;
+        }
+
+        return Target.IGNORED;
+    }
+
+    public int getColumnCount() {
+        return targets.length - 1;
+    }
+
+    public Target getTarget(int column) {
+        return targets[column];
+    }
+
+    public String getAttributeName(int column) {
+        return attributeNames[column];
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.SyncToken;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Composite sync token recording a 'last_modified' watermark for each of the tables scanned for changes, and
+ * the cursor of the last handled change. The token is represented by a {@link SyncToken} with a string value
+ * in the form "table=watermark;table=watermark;timestamp=latest timestamp;object class=identifier".
+ * <p>
+ * The cursor makes the token tie safe, the changes sharing the time stamp of the last handled change are resumed
+ * right after its object. A plain time stamp token (the representation used before the cursor was recorded)
+ * is accepted as the watermark of every table.
+ * <p>
+ * A handled change advances only the watermarks of the tables scanned for its object class, the watermarks of
+ * the other tables are kept until the changes of all the scanned tables are drained, see {@link #drain()}.
+ */
+public class GrouperSyncToken {
+    private static final Log LOG = Log.getLog(GrouperSyncToken.class);
+    private static final String _ENTRY_DELIMITER = ";";
+    private static final String _VALUE_DELIMITER = "=";
+    private static final String _CURSOR_TIMESTAMP = "timestamp";
+
+    private final Map<String, Long> watermarks = new TreeMap<>();
+    private final Map<String, Set<String>> objectClassTables = new HashMap<>();
+    private Long defaultWatermark;
+    private Long cursorTimestamp;
+    private String cursorObjectClass;
+    private String cursorIdentifier;
+
+    private GrouperSyncToken() {
+    }
+
+    public static GrouperSyncToken of(Map<String, Long> watermarks) {
+        GrouperSyncToken token = new GrouperSyncToken();
+
+        token.watermarks.putAll(watermarks);
+        return token;
+    }
+
+    public static GrouperSyncToken parse(SyncToken syncToken) {
+        GrouperSyncToken token = new GrouperSyncToken();
+
+        if (syncToken == null || syncToken.getValue() == null) {
+
+            return token;
+        }
+
+        Object value = syncToken.getValue();
+
+        if (value instanceof Number) {
+
+            token.defaultWatermark = ((Number) value).longValue();
+            return token;
+        }
+
+        String stringValue = value.toString();
+
+        try {
+            if (!stringValue.contains(_VALUE_DELIMITER)) {
+
+                token.defaultWatermark = Long.parseLong(stringValue);
+                return token;
+            }
+
+            for (String entry : stringValue.split(_ENTRY_DELIMITER)) {
+
+                if (entry.isEmpty()) {
+
+                    continue;
+                }
+
+                String[] entryParts = entry.split(_VALUE_DELIMITER);
+
+                if (_CURSOR_TIMESTAMP.equals(entryParts[0])) {
+
+                    token.cursorTimestamp = Long.parseLong(entryParts[1]);
+                } else if (ObjectProcessing.SYNC_ORDER.contains(entryParts[0])) {
+
+                    token.cursorObjectClass = entryParts[0];
+                    token.cursorIdentifier = entryParts[1];
+                } else {
+
+                    token.watermarks.put(entryParts[0], Long.parseLong(entryParts[1]));
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+
+            throw new InvalidAttributeValueException("Unexpected format of the sync token: " + stringValue);
+        }
+
+        if (token.watermarks.isEmpty()) {
+
+            token.defaultWatermark = token.cursorTimestamp;
+        }
+
+        LOG.ok("Parsed sync token watermarks: {0}, cursor: {1}", token.watermarks, token.cursorAsString());
+        return token;
+    }
+
+    /**
+     * Returns the watermark of the table. In case the token does not record the table, the plain time stamp value
+     * of the token is used, or the lowest recorded watermark, so no change of the table can be missed.
+     */
+    public Long getWatermark(String table) {
+
+        if (watermarks.containsKey(table)) {
+
+            return watermarks.get(table);
+        }
+
+        if (defaultWatermark != null) {
+
+            return defaultWatermark;
+        }
+
+        return getMinimalWatermark();
+    }
+
+    public Long getMinimalWatermark() {
+        Long minimal = defaultWatermark;
+
+        for (Long watermark : watermarks.values()) {
+
+            if (minimal == null || watermark < minimal) {
+
+                minimal = watermark;
+            }
+        }
+
+        return minimal != null ? minimal : 0L;
+    }
+
+    /**
+     * Adds the table to the tables recorded by the token, with its current watermark, and to the tables scanned
+     * for the changes of the object class.
+     */
+    public synchronized void register(String objectClass, String table) {
+
+        if (!watermarks.containsKey(table)) {
+
+            watermarks.put(table, getWatermark(table));
+        }
+
+        objectClassTables.computeIfAbsent(objectClass, key -> new LinkedHashSet<>()).add(table);
+    }
+
+    public boolean hasCursor() {
+
+        return cursorTimestamp != null && cursorObjectClass != null;
+    }
+
+    public Long getCursorTimestamp() {
+        return cursorTimestamp;
+    }
+
+    public String getCursorObjectClass() {
+        return cursorObjectClass;
+    }
+
+    public String getCursorIdentifier() {
+        return cursorIdentifier;
+    }
+
+    /**
+     * Moves the cursor to the handled change, and the watermarks of the tables scanned for its object class to its
+     * time stamp, unless a watermark is already higher. The watermarks of the tables of other object classes are
+     * kept. All changes preceding the change in the sync order have to be processed before the token is advanced.
+     */
+    public synchronized SyncToken advance(Long timestamp, String objectClass, String identifier) {
+
+        raiseWatermarks(objectClassTables.getOrDefault(objectClass, Set.of()), timestamp);
+
+        cursorTimestamp = timestamp;
+        cursorObjectClass = objectClass;
+        cursorIdentifier = identifier;
+
+        return toSyncToken();
+    }
+
+    /**
+     * Moves the watermarks of all the registered tables to the time stamp of the cursor, once the changes of all
+     * of them were handled. Returns true in case any of the watermarks was moved.
+     */
+    public synchronized boolean drain() {
+        boolean moved = false;
+
+        for (Set<String> tables : objectClassTables.values()) {
+
+            moved |= raiseWatermarks(tables, cursorTimestamp);
+        }
+
+        return moved;
+    }
+
+    private boolean raiseWatermarks(Set<String> tables, Long timestamp) {
+        boolean raised = false;
+
+        if (timestamp == null) {
+
+            return false;
+        }
+
+        for (String table : tables) {
+
+            if (timestamp > watermarks.get(table)) {
+
+                watermarks.put(table, timestamp);
+                raised = true;
+            }
+        }
+
+        return raised;
+    }
+
+    public synchronized SyncToken toSyncToken() {
+
+        return new SyncToken(toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder value = new StringBuilder();
+        Iterator<Map.Entry<String, Long>> iterator = watermarks.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+
+            value.append(entry.getKey()).append(_VALUE_DELIMITER).append(entry.getValue());
+
+            if (iterator.hasNext()) {
+
+                value.append(_ENTRY_DELIMITER);
+            }
+        }
+
+        if (hasCursor()) {
+
+            if (value.length() > 0) {
+
+                value.append(_ENTRY_DELIMITER);
+            }
+
+            value.append(cursorAsString());
+        }
+
+        return value.toString();
+    }
+
+    private String cursorAsString() {
+
+        return _CURSOR_TIMESTAMP + _VALUE_DELIMITER + cursorTimestamp + _ENTRY_DELIMITER + cursorObjectClass
+                + _VALUE_DELIMITER + cursorIdentifier;
+    }
+}
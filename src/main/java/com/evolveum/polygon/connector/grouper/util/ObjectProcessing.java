@@ -1,433 +1,1200 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper.util;
-
-import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.framework.common.objects.*;
-import org.identityconnectors.framework.common.objects.filter.Filter;
-
-import java.sql.*;
-import java.util.*;
-
-public abstract class ObjectProcessing {
-    private static final Log LOG = Log.getLog(ObjectProcessing.class);
-    public static final String SUBJECT_NAME = "subject";
-    public static final String GROUP_NAME = "group";
-    protected static final String ATTR_MODIFIED = "last_modified";
-    protected static final String NO_PREFIX_TABLE_MEMBERSHIP_NAME = "_mp_memberships";
-    protected static final String ATTR_GR_ID_IDX = "group_id_index";
-    protected static final String ATTR_SCT_ID_IDX = "subject_id_index";
-    protected static final String ATTR_EXT_NAME = "attribute_name";
-    protected static final String ATTR_EXT_VALUE = "attribute_value";
-    protected static final String ATTR_DELETED = "deleted";
-    protected static final String ATTR_DELETED_TRUE = "T";
-    protected static final String ATTR_MODIFIED_LATEST = "latest_timestamp";
-    private static final String _COUNT = "count";
-    protected static String TABLE_MEMBERSHIP_NAME = null;
-    protected GrouperConfiguration configuration;
-
-    protected Map<String, Class> objectColumns = Map.ofEntries(
-            Map.entry(ATTR_MODIFIED, Long.class),
-            Map.entry(ATTR_DELETED, String.class)
-    );
-
-    protected Map<String, Class> extensionColumns = Map.ofEntries(
-            Map.entry(ATTR_EXT_NAME, String.class),
-            Map.entry(ATTR_EXT_VALUE, String.class),
-
-            Map.entry(ATTR_MODIFIED, Long.class),
-            Map.entry(ATTR_DELETED, String.class)
-    );
-
-    protected Map<String, Class> membershipColumns = Map.ofEntries(
-            Map.entry(ATTR_GR_ID_IDX, String.class),
-            Map.entry(ATTR_SCT_ID_IDX, String.class),
-            Map.entry(ATTR_MODIFIED, Long.class),
-            Map.entry(ATTR_DELETED, String.class)
-    );
-
-    public ObjectProcessing(GrouperConfiguration configuration) {
-
-        this.configuration = configuration;
-
-        TABLE_MEMBERSHIP_NAME = configuration.getTablePrefix() + NO_PREFIX_TABLE_MEMBERSHIP_NAME;
-    }
-
-    public abstract void buildObjectClass(SchemaBuilder schemaBuilder, GrouperConfiguration configuration);
-
-    public abstract void executeQuery(Filter filter, ResultsHandler handler, OperationOptions operationOptions
-            , Connection connection);
-
-
-    protected GrouperObject buildGrouperObject(String uid_name, String name_name,
-                                               ResultSet resultSet,
-                                               Map<String, Class> columns, Set<String> multiValuedAttributesCatalogue, Map<String, String> renameSet)
-            throws SQLException {
-        return buildGrouperObject(uid_name, name_name, resultSet, columns, null, multiValuedAttributesCatalogue, renameSet);
-    }
-
-    protected GrouperObject buildGrouperObject(String uid_name, String name_name,
-                                               ResultSet resultSet,
-                                               Map<String, Class> columns, GrouperObject ob,
-                                               Set<String> multiValuedAttributesCatalogue,
-                                               Map<String, String> renameSet)
-            throws SQLException {
-
-        GrouperObject grouperObject;
-        String extAttrName = null;
-        String etxAttrValue = null;
-        String membershipColumnValue = null;
-
-        Boolean saturateMembership = true;
-        Boolean saturateExtensionAttribute = true;
-
-        if (ob != null) {
-            grouperObject = ob;
-
-        } else {
-            grouperObject = new GrouperObject();
-
-        }
-
-        ResultSetMetaData meta = resultSet.getMetaData();
-
-        int count = meta.getColumnCount();
-
-        for (int i = 1; i <= count; i++) {
-            String name = meta.getColumnName(i);
-            String origName = name;
-            String tableName = null;
-
-            if (name.contains("$")) {
-
-                String[] nameParts = name.split("\\$");
-                tableName = nameParts[0];
-                name = nameParts[1];
-
-            }
-
-            if (uid_name != null && name.equals(uid_name)) {
-
-                if (tableName != null && getMainTableName().equals(tableName)) {
-                    String uidVal = Long.toString(resultSet.getLong(i));
-
-                    grouperObject.setIdentifier(uidVal);
-
-                } else if (tableName == null) {
-
-                    String uidVal = Long.toString(resultSet.getLong(i));
-
-                    grouperObject.setIdentifier(uidVal);
-
-                }
-
-            } else if (name_name != null && name.equals(name_name)) {
-
-                if (tableName != null && getMainTableName().equals(tableName)) {
-                    String nameVal = resultSet.getString(i);
-
-                    grouperObject.setName(nameVal);
-
-                } else if (tableName == null) {
-
-                    String nameVal = resultSet.getString(i);
-
-                    grouperObject.setName(nameVal);
-
-                }
-            } else if (ATTR_EXT_NAME.equals(name)) {
-
-                extAttrName = resultSet.getString(i);
-
-            } else if (ATTR_EXT_VALUE.equals(name)) {
-
-                etxAttrValue = resultSet.getString(i);
-
-            } else if (ATTR_DELETED.equals(name)) {
-
-                String deleted = resultSet.getString(i);
-
-                if (tableName == null || getMainTableName().equals(tableName)) {
-
-                    if (deleted != null && ATTR_DELETED_TRUE.equals(deleted)) {
-
-                        grouperObject.setDeleted(true);
-                    }
-
-                } else if (getMembershipTableName().equals(tableName)) {
-
-                    if (deleted != null && ATTR_DELETED_TRUE.equals(deleted)) {
-
-                        saturateMembership = false;
-
-                    }
-
-                } else if (getExtensionAttributeTableName().equals(tableName)) {
-
-                    if (deleted != null && ATTR_DELETED_TRUE.equals(deleted)) {
-
-                        saturateExtensionAttribute = false;
-
-                    }
-
-                }
-
-            } else if (ATTR_MODIFIED_LATEST.equals(name)) {
-
-                Long timestamp_latest = resultSet.getLong(i);
-
-                if (timestamp_latest != null) {
-
-                    grouperObject.setLatestTimestamp(timestamp_latest);
-                }
-
-            } else {
-
-                if (columns.containsKey(name)) {
-                    Class type = columns.get(name);
-
-                    if (renameSet != null && !renameSet.isEmpty()) {
-                        if (renameSet.containsKey(name)) {
-                            name = renameSet.get(name);
-                        }
-                    }
-
-                    if (type.equals(Long.class)) {
-
-                        Long resVal = resultSet.getLong(i);
-
-                        if (name.equals(ATTR_MODIFIED)) {
-
-                            grouperObject.addAttribute(name, resultSet.wasNull() ? null : resVal,
-                                    multiValuedAttributesCatalogue);
-
-                        } else {
-
-                            if (getMemberShipAttributeName().equals(name)) {
-
-                                membershipColumnValue = resultSet.wasNull() ? null : Long.toString(resVal);
-                            } else {
-
-                                grouperObject.addAttribute(name, resultSet.wasNull() ? null : Long.toString(resVal),
-                                        multiValuedAttributesCatalogue);
-                            }
-                        }
-                    }
-
-                    if (type.equals(String.class)) {
-
-                        grouperObject.addAttribute(name, resultSet.getString(i),
-                                multiValuedAttributesCatalogue);
-                    }
-
-                } else {
-
-                }
-            }
-        }
-
-        if (extAttrName != null) {
-            if (configuration.getExcludeDeletedObjects()) {
-
-                if (saturateExtensionAttribute) {
-
-                    grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
-                }
-            } else {
-
-                grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
-            }
-        }
-
-        if (membershipColumnValue != null) {
-
-            if (configuration.getExcludeDeletedObjects()) {
-
-                if (saturateMembership) {
-
-                    grouperObject.addAttribute(getMemberShipAttributeName(), membershipColumnValue,
-                            multiValuedAttributesCatalogue);
-                }
-            } else {
-                grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
-            }
-        }
-
-        return grouperObject;
-    }
-
-    protected abstract String getMemberShipAttributeName();
-
-    protected abstract String getExtensionAttributeTableName();
-
-    protected abstract String getMembershipTableName();
-
-    protected abstract String getMainTableName();
-
-    protected ConnectorObjectBuilder buildConnectorObject(ObjectClass o_class, GrouperObject grouperObject) {
-
-        return buildConnectorObject(o_class, grouperObject, null);
-    }
-
-    protected ConnectorObjectBuilder buildConnectorObject(ObjectClass o_class, GrouperObject grouperObject,
-                                                          OperationOptions oo) {
-
-        LOG.ok("Processing through the buildConnectorObject method for grouper object {0}, of object class {1}",
-                grouperObject.getIdentifier(), o_class);
-        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
-        builder.setObjectClass(o_class);
-
-        builder.setUid(new Uid(grouperObject.getIdentifier()));
-        builder.setName(grouperObject.getName());
-
-        Map<String, Object> attrs = grouperObject.getAttributes();
-
-        for (String name : attrs.keySet()) {
-
-            if (attrs.get(name) instanceof HashSet<?>) {
-
-                builder.addAttribute(name, (Set) attrs.get(name));
-            } else {
-
-                builder.addAttribute(name, attrs.get(name));
-            }
-        }
-
-        return builder;
-    }
-
-    protected Set<String> getAttributesToGet(OperationOptions operationOptions) {
-        if (operationOptions != null && operationOptions.getAttributesToGet() != null) {
-
-            return new HashSet<>(Arrays.asList(operationOptions.getAttributesToGet()));
-        }
-
-        return null;
-    }
-
-    public boolean sync(SyncResultsHandler syncResultsHandler, ObjectClass objectClass,
-                        GrouperObject grouperObject) {
-
-
-        SyncDeltaBuilder builder = new SyncDeltaBuilder();
-        builder.setObjectClass(objectClass);
-        String objID = grouperObject.getIdentifier();
-
-        if (grouperObject.isDeleted()) {
-
-            builder.setDeltaType(SyncDeltaType.DELETE);
-
-            builder.setUid(new Uid(objID));
-            builder.setToken(new SyncToken(grouperObject.getLatestTimestamp()));
-
-        } else {
-
-            builder.setDeltaType(SyncDeltaType.CREATE_OR_UPDATE);
-            builder.setUid(new Uid(objID));
-            builder.setToken(new SyncToken(grouperObject.getLatestTimestamp()));
-
-            ConnectorObjectBuilder objectBuilder = buildConnectorObject(objectClass, grouperObject);
-
-            builder.setObject(objectBuilder.build());
-        }
-
-        SyncDelta syncdelta = builder.build();
-
-        if (!syncResultsHandler.handle(syncdelta)) {
-
-            LOG.warn("Result handling interrupted by handler!");
-            return false;
-        }
-
-        return true;
-    }
-
-    public abstract LinkedHashMap<String, GrouperObject> sync(SyncToken syncToken, OperationOptions operationOptions,
-                                                              Connection connection, QueryBuilder query,
-                                                              boolean isAllObjectClass);
-
-    public LinkedHashMap<String, GrouperObject> sync(SyncToken syncToken, OperationOptions operationOptions,
-                                                     Connection connection, QueryBuilder query) {
-
-        return sync(syncToken, operationOptions, connection, query, false);
-    }
-
-    protected abstract void sync(SyncToken syncToken, SyncResultsHandler syncResultsHandler,
-                                 OperationOptions operationOptions, Connection connection);
-
-    protected Integer countAll(QueryBuilder queryBuilder, Connection connection) {
-        Integer count = null;
-        queryBuilder.asCount();
-        ResultSet result;
-
-        try {
-            PreparedStatement prepareStatement = connection.prepareStatement(queryBuilder.build());
-            result = prepareStatement.executeQuery();
-
-            while (result.next()) {
-
-                ResultSetMetaData meta = result.getMetaData();
-
-                int columnCount = meta.getColumnCount();
-
-                for (int i = 1; i <= columnCount; i++) {
-                    String name = meta.getColumnName(i);
-
-                    if (_COUNT.equalsIgnoreCase(name)) {
-                        count = result.getInt(name);
-                    }
-                }
-            }
-
-            LOG.ok("The number of rows: {0}", count);
-
-        } catch (SQLException e) {
-
-            throw new ExceptionHandler().evaluateAndHandleException(e, true, false,
-                    "Exception occurred during 'count all' procedure");
-        }
-
-        return count;
-    }
-
-    public abstract Long getLatestSyncToken(Connection connection);
-
-    protected void handleLargerThanMaxSize(ObjectClass oClass, SyncResultsHandler syncResultsHandler,
-                                           SyncToken syncToken, QueryBuilder syncQueryBuilder,
-                                           OperationOptions operationOptions, Connection connection,
-                                           Integer totalRows, Integer maxPageSize) {
-
-        for (int i = 0; totalRows >= i; i = i + maxPageSize) {
-
-            syncQueryBuilder.setPageSize(maxPageSize);
-            syncQueryBuilder.setPageOffset(i + 1);
-
-            Map<String, GrouperObject> objectMap = sync(syncToken, operationOptions, connection,
-                    syncQueryBuilder);
-
-            for (String objID : objectMap.keySet()) {
-                GrouperObject grouperObject = objectMap.get(objID);
-
-                if (!sync(syncResultsHandler, oClass, grouperObject)) {
-
-                    break;
-                }
-            }
-        }
-    }
-}
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.*;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
+import org.identityconnectors.framework.spi.SearchResultsHandler;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public abstract class ObjectProcessing {
+    private static final Log LOG = Log.getLog(ObjectProcessing.class);
+    public static final String SUBJECT_NAME = "subject";
+    public static final String GROUP_NAME = "group";
+    protected static final String ATTR_MODIFIED = "last_modified";
+    protected static final String NO_PREFIX_TABLE_MEMBERSHIP_NAME = "_mp_memberships";
+    protected static final String ATTR_GR_ID_IDX = "group_id_index";
+    protected static final String ATTR_SCT_ID_IDX = "subject_id_index";
+    protected static final String ATTR_EXT_NAME = "attribute_name";
+    protected static final String ATTR_EXT_VALUE = "attribute_value";
+    protected static final String ATTR_DELETED = "deleted";
+    protected static final String ATTR_DELETED_TRUE = "T";
+    protected static final String ATTR_DELETED_FALSE = "F";
+    protected static final String ATTR_MODIFIED_LATEST = "latest_timestamp";
+    protected static final String ATTR_TOTAL_COUNT = "total_count";
+    // Order in which the changes of the object classes sharing a time stamp are handled
+    protected static final List<String> SYNC_ORDER = List.of(GROUP_NAME, SUBJECT_NAME);
+    protected static String TABLE_MEMBERSHIP_NAME = null;
+    protected GrouperConfiguration configuration;
+    private GrouperSyncToken grouperSyncToken;
+    protected final AdaptivePager pager;
+    private Supplier<Connection> prefetchConnectionSupplier;
+    private Connection prefetchConnection;
+
+    protected Map<String, Class> objectColumns = Map.ofEntries(
+            Map.entry(ATTR_MODIFIED, Long.class),
+            Map.entry(ATTR_DELETED, String.class)
+    );
+
+    protected Map<String, Class> extensionColumns = Map.ofEntries(
+            Map.entry(ATTR_EXT_NAME, String.class),
+            Map.entry(ATTR_EXT_VALUE, String.class),
+
+            Map.entry(ATTR_MODIFIED, Long.class),
+            Map.entry(ATTR_DELETED, String.class)
+    );
+
+    protected Map<String, Class> membershipColumns = Map.ofEntries(
+            Map.entry(ATTR_GR_ID_IDX, Long.class),
+            Map.entry(ATTR_SCT_ID_IDX, Long.class),
+            Map.entry(ATTR_MODIFIED, Long.class),
+            Map.entry(ATTR_DELETED, String.class)
+    );
+
+    public ObjectProcessing(GrouperConfiguration configuration) {
+
+        this.configuration = configuration;
+        this.pager = new AdaptivePager(configuration);
+
+        TABLE_MEMBERSHIP_NAME = configuration.getTablePrefix() + NO_PREFIX_TABLE_MEMBERSHIP_NAME;
+    }
+
+    public abstract void buildObjectClass(SchemaBuilder schemaBuilder, GrouperConfiguration configuration);
+
+    public abstract void executeQuery(Filter filter, ResultsHandler handler, OperationOptions operationOptions
+            , Connection connection);
+
+    protected abstract boolean handleExecuteQuery(ResultsHandler handler, Connection connection,
+                                                  QueryBuilder queryBuilder, Boolean isAllQuery,
+                                                  Boolean isPagedSearch, OperationOptions operationOptions);
+
+    /**
+     * Reads one page of the search results, the keyset of the query builder is moved to the next page.
+     */
+    protected abstract ObjectPage readPage(Connection connection, QueryBuilder queryBuilder);
+
+    /**
+     * Passes the objects of the page to the handler. Returns false in case the handler refused an object.
+     */
+    protected abstract boolean handlePage(ObjectPage page, ResultsHandler handler, Connection connection,
+                                          Boolean isPagedSearch, OperationOptions operationOptions);
+
+    /**
+     * Sets the supplier of the connection used to prefetch the next page of a paged search, see
+     * {@link #handlePages}. The supplier is called at most once, by the first search having more than one page.
+     */
+    public void setPrefetchConnectionSupplier(Supplier<Connection> prefetchConnectionSupplier) {
+        this.prefetchConnectionSupplier = prefetchConnectionSupplier;
+    }
+
+
+    protected GrouperObject buildGrouperObject(ColumnPlan plan, ResultSet resultSet,
+                                               Set<String> multiValuedAttributesCatalogue)
+            throws SQLException {
+        return buildGrouperObject(plan, resultSet, null, multiValuedAttributesCatalogue);
+    }
+
+    protected GrouperObject buildGrouperObject(ColumnPlan plan, ResultSet resultSet, GrouperObject ob,
+                                               Set<String> multiValuedAttributesCatalogue)
+            throws SQLException {
+
+        GrouperObject grouperObject;
+        String extAttrName = null;
+        String etxAttrValue = null;
+        String membershipColumnValue = null;
+
+        Boolean saturateMembership = true;
+        Boolean saturateExtensionAttribute = true;
+
+        Object[] aggregatedExtNames = null;
+        Object[] aggregatedExtValues = null;
+
+        if (ob != null) {
+            grouperObject = ob;
+
+        } else {
+            grouperObject = new GrouperObject();
+
+        }
+
+        int count = plan.getColumnCount();
+
+        for (int i = 1; i <= count; i++) {
+
+            switch (plan.getTarget(i)) {
+                case UID:
+
+                    grouperObject.setIdentifier(Long.toString(resultSet.getLong(i)));
+                    break;
+                case NAME:
+
+                    grouperObject.setName(resultSet.getString(i));
+                    break;
+                case EXTENSION_NAME:
+
+                    extAttrName = resultSet.getString(i);
+                    break;
+                case EXTENSION_VALUE:
+
+                    etxAttrValue = resultSet.getString(i);
+                    break;
+                case DELETED:
+
+                    if (ATTR_DELETED_TRUE.equals(resultSet.getString(i))) {
+
+                        grouperObject.setDeleted(true);
+                    }
+                    break;
+                case MEMBERSHIP_DELETED:
+
+                    if (ATTR_DELETED_TRUE.equals(resultSet.getString(i))) {
+
+                        saturateMembership = false;
+                    }
+                    break;
+                case EXTENSION_DELETED:
+
+                    if (ATTR_DELETED_TRUE.equals(resultSet.getString(i))) {
+
+                        saturateExtensionAttribute = false;
+                    }
+                    break;
+                case LATEST_TIMESTAMP:
+
+                    grouperObject.setLatestTimestamp(resultSet.getLong(i));
+                    break;
+                case MODIFIED: {
+
+                    long resVal = resultSet.getLong(i);
+
+                    grouperObject.addAttribute(plan.getAttributeName(i), resultSet.wasNull() ? null : resVal,
+                            multiValuedAttributesCatalogue);
+                    break;
+                }
+                case MEMBERSHIP: {
+
+                    long resVal = resultSet.getLong(i);
+
+                    membershipColumnValue = resultSet.wasNull() ? null : Long.toString(resVal);
+                    break;
+                }
+                case LONG_ATTRIBUTE: {
+
+                    long resVal = resultSet.getLong(i);
+
+                    grouperObject.addAttribute(plan.getAttributeName(i),
+                            resultSet.wasNull() ? null : Long.toString(resVal), multiValuedAttributesCatalogue);
+                    break;
+                }
+                case STRING_ATTRIBUTE:
+
+                    grouperObject.addAttribute(plan.getAttributeName(i), resultSet.getString(i),
+                            multiValuedAttributesCatalogue);
+                    break;
+                case AGGREGATED_MEMBERSHIP: {
+
+                    Array array = resultSet.getArray(i);
+
+                    if (array != null) {
+                        for (Object value : (Object[]) array.getArray()) {
+
+                            grouperObject.addAttribute(getMemberShipAttributeName(), value.toString(),
+                                    multiValuedAttributesCatalogue);
+                        }
+                    }
+                    break;
+                }
+                case AGGREGATED_EXTENSION_NAME: {
+
+                    Array array = resultSet.getArray(i);
+                    aggregatedExtNames = array != null ? (Object[]) array.getArray() : new Object[0];
+                    break;
+                }
+                case AGGREGATED_EXTENSION_VALUE: {
+
+                    Array array = resultSet.getArray(i);
+                    aggregatedExtValues = array != null ? (Object[]) array.getArray() : new Object[0];
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+
+        if (aggregatedExtNames != null && aggregatedExtValues != null) {
+
+            for (int i = 0; i < aggregatedExtNames.length; i++) {
+                Object value = aggregatedExtValues[i];
+
+                grouperObject.addAttribute(aggregatedExtNames[i].toString(), value != null ? value.toString() : null,
+                        multiValuedAttributesCatalogue);
+            }
+        }
+
+        if (extAttrName != null) {
+            if (configuration.getExcludeDeletedObjects()) {
+
+                if (saturateExtensionAttribute) {
+
+                    grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
+                }
+            } else {
+
+                grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
+            }
+        }
+
+        if (membershipColumnValue != null) {
+
+            if (configuration.getExcludeDeletedObjects()) {
+
+                if (saturateMembership) {
+
+                    grouperObject.addAttribute(getMemberShipAttributeName(), membershipColumnValue,
+                            multiValuedAttributesCatalogue);
+                }
+            } else {
+                grouperObject.addAttribute(extAttrName, etxAttrValue, multiValuedAttributesCatalogue);
+            }
+        }
+
+        return grouperObject;
+    }
+
+    /**
+     * Computes the column plan of the result set, before its first row is read. Each reader of a result set
+     * builds its own plan, so a page prefetched in parallel does not evict the plan of the page being handled.
+     */
+    protected ColumnPlan buildColumnPlan(String uid_name, String name_name, ResultSet resultSet,
+                                         Map<String, Class> columns, Map<String, String> renameSet)
+            throws SQLException {
+
+        return new ColumnPlan(resultSet, uid_name, name_name, columns, renameSet, getMainTableName(),
+                getMembershipTableName(), getExtensionAttributeTableName(), getMemberShipAttributeName());
+    }
+
+    protected abstract String getMemberShipAttributeName();
+
+    protected abstract String getMemberShipNativeAttributeName();
+
+    protected abstract String getExtensionAttributeTableName();
+
+    protected abstract String getMembershipTableName();
+
+    protected abstract String getMainTableName();
+
+    protected abstract String getUidAttributeName();
+
+    /**
+     * Name of the column referencing the object in the membership and extension attribute tables.
+     */
+    protected abstract String getRelationAttributeName();
+
+    protected ConnectorObjectBuilder buildConnectorObject(ObjectClass o_class, GrouperObject grouperObject) {
+
+        return buildConnectorObject(o_class, grouperObject, null);
+    }
+
+    protected ConnectorObjectBuilder buildConnectorObject(ObjectClass o_class, GrouperObject grouperObject,
+                                                          OperationOptions oo) {
+
+        LOG.ok("Processing through the buildConnectorObject method for grouper object {0}, of object class {1}",
+                grouperObject.getIdentifier(), o_class);
+        ConnectorObjectBuilder builder = new ConnectorObjectBuilder();
+        builder.setObjectClass(o_class);
+
+        builder.setUid(new Uid(grouperObject.getIdentifier()));
+        builder.setName(grouperObject.getName());
+
+        Map<String, Object> attrs = grouperObject.getAttributes();
+
+        for (String name : attrs.keySet()) {
+
+            if (attrs.get(name) instanceof HashSet<?>) {
+
+                builder.addAttribute(name, (Set) attrs.get(name));
+            } else {
+
+                builder.addAttribute(name, attrs.get(name));
+            }
+        }
+
+        return builder;
+    }
+
+    protected Set<String> getAttributesToGet(OperationOptions operationOptions) {
+        if (operationOptions != null && operationOptions.getAttributesToGet() != null) {
+
+            return new HashSet<>(Arrays.asList(operationOptions.getAttributesToGet()));
+        }
+
+        return null;
+    }
+
+    public boolean sync(SyncResultsHandler syncResultsHandler, ObjectClass objectClass,
+                        GrouperObject grouperObject) {
+
+        return sync(syncResultsHandler, objectClass, grouperObject, nextSyncToken(objectClass, grouperObject));
+    }
+
+    /**
+     * Passes the change of the object to the handler, with the given token as the token of the change.
+     */
+    public boolean sync(SyncResultsHandler syncResultsHandler, ObjectClass objectClass,
+                        GrouperObject grouperObject, SyncToken syncToken) {
+
+        SyncDeltaBuilder builder = new SyncDeltaBuilder();
+        builder.setObjectClass(objectClass);
+        String objID = grouperObject.getIdentifier();
+
+        if (grouperObject.isDeleted()) {
+
+            builder.setDeltaType(SyncDeltaType.DELETE);
+
+            builder.setUid(new Uid(objID));
+            builder.setToken(syncToken);
+
+        } else {
+
+            builder.setDeltaType(SyncDeltaType.CREATE_OR_UPDATE);
+            builder.setUid(new Uid(objID));
+            builder.setToken(syncToken);
+
+            ConnectorObjectBuilder objectBuilder = buildConnectorObject(objectClass, grouperObject);
+
+            builder.setObject(objectBuilder.build());
+        }
+
+        SyncDelta syncdelta = builder.build();
+
+        if (!syncResultsHandler.handle(syncdelta)) {
+
+            LOG.warn("Result handling interrupted by handler!");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Reports the token of a page boundary, all the changes preceding the token were passed on to the handler.
+     * The token is passed on only if the handler accepts tokens without a change, the latest reported token is
+     * used as the token of the whole synchronization.
+     */
+    public static void checkpoint(SyncResultsHandler syncResultsHandler, SyncToken syncToken) {
+
+        if (syncToken != null && syncResultsHandler instanceof SyncTokenResultsHandler) {
+
+            LOG.ok("Sync checkpoint at the token {0}", syncToken.getValue());
+            ((SyncTokenResultsHandler) syncResultsHandler).handleResult(syncToken);
+        }
+    }
+
+    private SyncToken nextSyncToken(ObjectClass objectClass, GrouperObject grouperObject) {
+
+        if (grouperSyncToken == null) {
+
+            return new SyncToken(grouperObject.getLatestTimestamp());
+        }
+
+        return grouperSyncToken.advance(grouperObject.getLatestTimestamp(), objectClass.getObjectClassValue(),
+                grouperObject.getIdentifier());
+    }
+
+    protected boolean isWatermarkSync() {
+
+        return GrouperConfiguration.SYNC_STRATEGY_WATERMARK.equals(configuration.getSyncStrategy());
+    }
+
+    /**
+     * Sets the token advanced by the handled changes. In case more object classes are synchronized by one
+     * operation, all of them have to share the same token instance.
+     */
+    public void setGrouperSyncToken(GrouperSyncToken grouperSyncToken) {
+        this.grouperSyncToken = grouperSyncToken;
+    }
+
+    protected GrouperSyncToken getGrouperSyncToken(SyncToken syncToken) {
+
+        if (grouperSyncToken == null) {
+
+            grouperSyncToken = GrouperSyncToken.parse(syncToken);
+        }
+
+        return grouperSyncToken;
+    }
+
+    /**
+     * Returns the time stamp value of the sync token used in the time stamp based conditions. In case of a watermark
+     * token, the lowest of the watermarks is used.
+     */
+    protected String getSyncTokenValue(SyncToken syncToken) {
+
+        if (syncToken.getValue() instanceof Long) {
+
+            return Long.toString((Long) syncToken.getValue());
+        }
+
+        return Long.toString(GrouperSyncToken.parse(syncToken).getMinimalWatermark());
+    }
+
+    /**
+     * Creates the condition on the modification time stamp of the table. In case the token records the cursor
+     * of the last handled change, the changes sharing its time stamp are included, the sync cursor skips the ones
+     * which were already handled.
+     */
+    protected Filter modifiedSince(String table, SyncToken syncToken) {
+        Attribute modified = AttributeBuilder.build(table + "." + ATTR_MODIFIED, getSyncTokenValue(syncToken));
+
+        if (getGrouperSyncToken(syncToken).hasCursor()) {
+
+            return FilterBuilder.greaterThanOrEqualTo(modified);
+        }
+
+        return FilterBuilder.greaterThan(modified);
+    }
+
+    /**
+     * Resumes the sync query right after the last handled change recorded by the token. The changes of object
+     * classes preceding the cursor object class in the {@link ObjectProcessing#SYNC_ORDER} were handled up to
+     * the time stamp of the cursor, the changes of the following object classes were not.
+     */
+    protected void setSyncCursor(QueryBuilder queryBuilder, SyncToken syncToken, ObjectClass objectClass) {
+        GrouperSyncToken token = getGrouperSyncToken(syncToken);
+
+        queryBuilder.setOrderBySyncCursor();
+
+        if (!token.hasCursor()) {
+
+            return;
+        }
+
+        int order = SYNC_ORDER.indexOf(objectClass.getObjectClassValue());
+        int cursorOrder = SYNC_ORDER.indexOf(token.getCursorObjectClass());
+
+        if (order == cursorOrder) {
+
+            queryBuilder.setKeyset(token.getCursorTimestamp(), token.getCursorIdentifier());
+        } else if (order < cursorOrder) {
+
+            queryBuilder.setKeyset(token.getCursorTimestamp(), null);
+        }
+    }
+
+    /**
+     * Creates the sync query of the objects deleted since the token. The deleted objects are excluded from
+     * the sync query of the object class, so their related tables are neither joined nor fetched.
+     */
+    public QueryBuilder tombstoneQuery(SyncToken syncToken, ObjectClass objectClass) {
+        GrouperSyncToken token = getGrouperSyncToken(syncToken);
+        Long since = isWatermarkSync() ? token.getWatermark(getMainTableName())
+                : Long.valueOf(getSyncTokenValue(syncToken));
+
+        QueryBuilder queryBuilder = new QueryBuilder(objectClass, getMainTableName(), null);
+        queryBuilder.setTombstones(since, token.hasCursor());
+        setSyncCursor(queryBuilder, syncToken, objectClass);
+
+        return queryBuilder;
+    }
+
+    /**
+     * Switches the sync query to the watermark based sync query, scanning the main table and the related tables
+     * which are present in the sync query.
+     */
+    protected void setWatermarks(QueryBuilder queryBuilder, SyncToken syncToken, String relationIdentifier,
+                                 boolean withMemberships, boolean withExtensions) {
+        GrouperSyncToken token = getGrouperSyncToken(syncToken);
+        Map<String, String> watermarkTables = new LinkedHashMap<>();
+        Map<String, Long> watermarks = new HashMap<>();
+
+        watermarkTables.put(getMainTableName(), getUidAttributeName());
+
+        if (withMemberships) {
+
+            watermarkTables.put(getMembershipTableName(), relationIdentifier);
+        }
+
+        if (withExtensions) {
+
+            watermarkTables.put(getExtensionAttributeTableName(), relationIdentifier);
+        }
+
+        for (String table : watermarkTables.keySet()) {
+            String watermarkKey = getWatermarkKey(table);
+
+            token.register(queryBuilder.getObjectClass().getObjectClassValue(), watermarkKey);
+            watermarks.put(table, token.getWatermark(watermarkKey));
+        }
+
+        queryBuilder.setWatermarks(watermarkTables, watermarks, token.hasCursor());
+    }
+
+    protected abstract Map<String, GrouperObject> fetchFullObjects(Map<String, GrouperObject> objectsMap,
+                                                                   OperationOptions operationOptions,
+                                                                   Connection connection, boolean isAllObjectClass);
+
+    /**
+     * Creates the query reading the identifiers and the latest time stamps of the objects changed since the token.
+     */
+    public abstract QueryBuilder syncQuery(SyncToken syncToken, OperationOptions operationOptions,
+                                           Connection connection, boolean isAllObjectClass);
+
+    public abstract LinkedHashMap<String, GrouperObject> sync(SyncToken syncToken, OperationOptions operationOptions,
+                                                              Connection connection, QueryBuilder query,
+                                                              boolean isAllObjectClass);
+
+    public LinkedHashMap<String, GrouperObject> sync(SyncToken syncToken, OperationOptions operationOptions,
+                                                     Connection connection, QueryBuilder query) {
+
+        return sync(syncToken, operationOptions, connection, query, false);
+    }
+
+    protected abstract void sync(SyncToken syncToken, SyncResultsHandler syncResultsHandler,
+                                 OperationOptions operationOptions, Connection connection);
+
+    /**
+     * Splits the identifier key space of the objects into ranges of the same width, between the minimal and
+     * the maximal identifier of the main table. Returns a filter for each of the ranges, the filters are
+     * disjoint and cover all the objects. Returns an empty list in case there is no object.
+     */
+    public List<Filter> keyRangeFilters(Connection connection, int parts) {
+        String column = getMainTableName() + "." + getUidAttributeName();
+        String query = QueryBuilder.buildKeyRangeQuery(getMainTableName(), getUidAttributeName());
+        long min;
+        long max;
+
+        try (ReadTransaction transaction = openReadTransaction(connection);
+             PreparedStatement prepareStatement = transaction.prepareStatement(query);
+             ResultSet result = prepareStatement.executeQuery()) {
+
+            if (!result.next()) {
+
+                return List.of();
+            }
+
+            min = result.getLong(1);
+
+            if (result.wasNull()) {
+
+                return List.of();
+            }
+
+            max = result.getLong(2);
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred while reading the key range of the table: " + getMainTableName();
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+
+        List<Filter> filters = new ArrayList<>();
+
+        for (long[] range : splitKeyRange(min, max, parts)) {
+
+            filters.add(FilterBuilder.and(
+                    FilterBuilder.greaterThanOrEqualTo(AttributeBuilder.build(column, range[0])),
+                    FilterBuilder.lessThanOrEqualTo(AttributeBuilder.build(column, range[1]))));
+        }
+
+        LOG.ok("Key range {0} - {1} of the table {2} split into {3} ranges", min, max, getMainTableName(),
+                filters.size());
+        return filters;
+    }
+
+    /**
+     * Splits the keys between the minimal and the maximal key, both included, into at most the given number of
+     * ranges of the same width, the last range may be narrower. Returns the lower and the upper key of each of
+     * the ranges, both included. In case there are fewer keys than ranges, each of the ranges holds one key.
+     */
+    public static List<long[]> splitKeyRange(long min, long max, int parts) {
+        List<long[]> ranges = new ArrayList<>();
+
+        if (min > max || parts < 1) {
+
+            return ranges;
+        }
+
+        // The span of the keys may exceed the long range, so it is computed unsigned, the distance between the
+        // lower and the upper key of a range is below the span
+        long step = Long.divideUnsigned(max - min, parts);
+        long lower = min;
+
+        while (Long.compareUnsigned(max - lower, step) > 0) {
+
+            ranges.add(new long[]{lower, lower + step});
+            lower = lower + step + 1;
+        }
+
+        ranges.add(new long[]{lower, max});
+        return ranges;
+    }
+
+    protected ReadTransaction openReadTransaction(Connection connection) throws SQLException {
+
+        return new ReadTransaction(connection, configuration.getFetchSize());
+    }
+
+    /**
+     * Executes the search query ordered by the object identifier and passes each object to the handler as soon
+     * as the rows of the next object start, so only the object being assembled is kept in memory. In case of
+     * keyset paging, the last object of a full page is held back and read again as the first object of the next
+     * page.
+     *
+     * @return true in case the next page should be fetched
+     */
+    protected boolean handleExecuteQueryInRowOrder(ResultsHandler handler, Connection connection,
+                                                   QueryBuilder queryBuilder, OperationOptions operationOptions,
+                                                   ObjectClass objectClass, String uidName, String nameName,
+                                                   Map<String, Class> columns,
+                                                   Set<String> multiValuedAttributesCatalogue,
+                                                   Map<String, String> renameSet) {
+
+        queryBuilder.setOrderByIdentifier();
+        String query = queryBuilder.build();
+
+        LOG.info("Query about to be executed in row order: {0}", query);
+
+        try (ReadTransaction transaction = openReadTransaction(connection);
+             PreparedStatement prepareStatement = transaction.prepareStatement(query,
+                     queryBuilder.getParameters())) {
+
+            long started = System.nanoTime();
+            ResultSet result = prepareStatement.executeQuery();
+            ColumnPlan plan = buildColumnPlan(uidName, nameName, result, columns, renameSet);
+
+            GrouperObject current = null;
+            String lastEmitted = null;
+            Integer totalCount = null;
+            int rows = 0;
+            int processed = 0;
+
+            while (result.next()) {
+
+                rows++;
+
+                if (totalCount == null && queryBuilder.isCountTotal()) {
+
+                    totalCount = result.getInt(ATTR_TOTAL_COUNT);
+                }
+
+                GrouperObject go = buildGrouperObject(plan, result, multiValuedAttributesCatalogue);
+                go.setObjectClass(objectClass);
+
+                if (current != null && current.getIdentifier().equals(go.getIdentifier())) {
+
+                    Map<String, Object> attrMap = go.getAttributes();
+
+                    for (String attName : attrMap.keySet()) {
+
+                        current.addAttribute(attName, attrMap.get(attName), multiValuedAttributesCatalogue);
+                    }
+
+                    continue;
+                }
+
+                if (current != null) {
+
+                    if (!handler.handle(buildConnectorObject(objectClass, current, operationOptions).build())) {
+
+                        LOG.warn("Result handling interrupted by handler!");
+                        handleSearchResult(handler, current.getIdentifier(), -1);
+                        return false;
+                    }
+
+                    lastEmitted = current.getIdentifier();
+                    processed++;
+                }
+
+                current = go;
+            }
+
+            boolean hasNextPage = false;
+
+            if (queryBuilder.isKeysetPaging() && rows >= queryBuilder.getPageSize()) {
+
+                hasNextPage = true;
+
+                if (lastEmitted != null) {
+
+                    // The rows are handled while being read, so the handling counts into the time of the page
+                    queryBuilder.setKeyset(null, lastEmitted);
+                    queryBuilder.setPageSize(pager.nextPageSize(queryBuilder.getPageSize(),
+                            configuration.getMaxPageSize(), System.nanoTime() - started, rows, processed + 1));
+                } else {
+
+                    LOG.ok("Page filled by the rows of a single object, doubling the page size: {0}",
+                            queryBuilder.getPageSize());
+                    queryBuilder.setPageSize(queryBuilder.getPageSize() * 2);
+                }
+            } else if (current != null) {
+
+                if (!handler.handle(buildConnectorObject(objectClass, current, operationOptions).build())) {
+
+                    LOG.warn("Result handling interrupted by handler!");
+                    handleSearchResult(handler, current.getIdentifier(), -1);
+                    return false;
+                }
+
+                lastEmitted = current.getIdentifier();
+                processed++;
+            }
+
+            if (lastEmitted != null) {
+
+                handleSearchResult(handler, lastEmitted, remainingPagedResults(totalCount, operationOptions,
+                        processed));
+            } else if (!hasNextPage) {
+
+                LOG.ok("Empty object set in execute query.");
+            }
+
+            return hasNextPage;
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred during the Execute query operation while processing the query: "
+                    + query + ". The object class being handled: " + objectClass;
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+    }
+
+    /**
+     * Reads the search results page by page, until the last page is read or the handler refuses an object.
+     * In case a prefetch connection is supplied, the next page is read on the other connection by the prefetch
+     * thread of the search, while the objects of the current page are passed to the handler. The connections take
+     * turns, so each page is handled on the connection it was read on. Each prefetched page is read by its own
+     * copy of the query builder, taken before the prefetch starts, so no query builder is shared by the threads.
+     * In row order, the rows are handled while being read, so the pages are not prefetched.
+     */
+    protected void handlePages(ResultsHandler handler, Connection connection, QueryBuilder queryBuilder,
+                               Boolean isAllQuery, Boolean isPagedSearch, OperationOptions operationOptions) {
+
+        if ((configuration.getEnableRowOrderEmission() && !isPagedSearch)
+                || (prefetchConnection == null && prefetchConnectionSupplier == null)) {
+
+            boolean hasNextPage = true;
+
+            while (hasNextPage) {
+
+                hasNextPage = handleExecuteQuery(handler, connection, queryBuilder, isAllQuery, isPagedSearch,
+                        operationOptions);
+            }
+
+            return;
+        }
+
+        ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "grouper-page-prefetch-" + getMainTableName());
+
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Connection current = connection;
+            Connection other = null;
+            QueryBuilder pageQuery = queryBuilder;
+            ObjectPage page = readPage(current, pageQuery);
+
+            while (true) {
+                Future<ObjectPage> prefetch = null;
+                QueryBuilder nextPageQuery = null;
+
+                if (page.hasNextPage()) {
+
+                    // The prefetch connection is borrowed only once there is a next page to be read on it
+                    if (other == null) {
+
+                        other = getPrefetchConnection();
+                    }
+
+                    Connection prefetchOn = other;
+                    // The keyset of the next page is copied before the prefetch thread moves it further
+                    QueryBuilder prefetchQuery = pageQuery.copy();
+
+                    prefetch = prefetchExecutor.submit(() -> readPage(prefetchOn, prefetchQuery));
+                    nextPageQuery = prefetchQuery;
+                }
+
+                if (!handlePage(page, handler, current, isPagedSearch, operationOptions) || prefetch == null) {
+
+                    return;
+                }
+
+                Connection handledOn = current;
+
+                page = getPrefetchedPage(prefetch);
+                pageQuery = nextPageQuery;
+                current = other;
+                other = handledOn;
+            }
+        } finally {
+
+            // A prefetch still running has to finish before its connection is used again or released
+            awaitPrefetch(prefetchExecutor);
+        }
+    }
+
+    private Connection getPrefetchConnection() {
+
+        if (prefetchConnection == null && prefetchConnectionSupplier != null) {
+
+            prefetchConnection = prefetchConnectionSupplier.get();
+            prefetchConnectionSupplier = null;
+        }
+
+        return prefetchConnection;
+    }
+
+    private void awaitPrefetch(ExecutorService prefetchExecutor) {
+
+        prefetchExecutor.shutdown();
+
+        try {
+            prefetchExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("Interrupted while waiting for the prefetched page.");
+        }
+    }
+
+    private ObjectPage getPrefetchedPage(Future<ObjectPage> prefetch) {
+
+        try {
+            return prefetch.get();
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("Interrupted while waiting for the prefetched page.");
+        } catch (ExecutionException e) {
+
+            if (e.getCause() instanceof RuntimeException) {
+
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new ConnectorException("Exception while prefetching the next page: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private void handleSearchResult(ResultsHandler handler, String pseudoCookie, int remaining) {
+
+        if (handler instanceof SearchResultsHandler) {
+
+            LOG.ok("Handling results with pseudoCookie: {0}", pseudoCookie);
+            ((SearchResultsHandler) handler).handleResult(new SearchResult(pseudoCookie, remaining));
+        }
+    }
+
+    /**
+     * In case relation aggregation is enabled, the joined membership and extension attribute tables are
+     * aggregated into arrays by the database, so each object is returned as a single row.
+     */
+    protected void aggregateRelations(QueryBuilder queryBuilder, Map<String, Map<String, Class>> tablesAndColumns) {
+
+        if (!configuration.getEnableRelationAggregation()) {
+
+            return;
+        }
+
+        if (tablesAndColumns.containsKey(getMembershipTableName())) {
+
+            queryBuilder.addAggregatedColumns(getMembershipTableName(), List.of(getMemberShipNativeAttributeName()));
+        }
+
+        if (tablesAndColumns.containsKey(getExtensionAttributeTableName())) {
+
+            queryBuilder.addAggregatedColumns(getExtensionAttributeTableName(), List.of(ATTR_EXT_NAME, ATTR_EXT_VALUE));
+        }
+
+        queryBuilder.setAggregatedExcludeDeleted(configuration.getExcludeDeletedObjects());
+    }
+
+    /**
+     * Evaluates if the result set has to be read in pages limited by the maximal page size. The paging loop stops
+     * at the first page shorter than the maximal page size, so no count of the result set is needed up front.
+     */
+    public boolean isPagedByMaxPageSize(Integer pageSize) {
+        Integer maxPageSize = configuration.getMaxPageSize();
+
+        return maxPageSize != null && (pageSize == null || pageSize > maxPageSize);
+    }
+
+    /**
+     * Returns the page size used to read the changes of a sync operation, or null in case the changes are read
+     * by a single query. Without the maximal page size, the fetch size is used, so the changes of a long backlog
+     * are not read into memory at once.
+     */
+    public Integer getSyncPageSize(OperationOptions operationOptions) {
+        Integer pageSize = null;
+
+        if (operationOptions != null && operationOptions.getOptions().containsKey(OperationOptions.OP_PAGE_SIZE)) {
+
+            pageSize = operationOptions.getPageSize();
+        }
+
+        if (isPagedByMaxPageSize(pageSize)) {
+
+            return configuration.getMaxPageSize();
+        }
+
+        return pageSize == null ? configuration.getFetchSize() : null;
+    }
+
+    /**
+     * Computes the number of results remaining after the current page, based on the total count returned
+     * by the query in the {@link ObjectProcessing#ATTR_TOTAL_COUNT} column.
+     */
+    protected int remainingPagedResults(Integer totalCount, OperationOptions operationOptions, int processed) {
+
+        if (totalCount == null) {
+
+            return -1;
+        }
+
+        int skipped = 0;
+
+        if (operationOptions != null && (operationOptions.getPagedResultsCookie() == null
+                || operationOptions.getPagedResultsCookie().isEmpty())
+                && operationOptions.getPagedResultsOffset() != null && operationOptions.getPagedResultsOffset() > 0) {
+
+            skipped = operationOptions.getPagedResultsOffset() - 1;
+        }
+
+        return Math.max(totalCount - skipped - processed, 0);
+    }
+
+    /**
+     * Returns the tables whose modification time stamps are evaluated during the synchronization of the object class.
+     */
+    public List<String> getSyncTables() {
+
+        return List.of(getMainTableName(), getMembershipTableName(), getExtensionAttributeTableName());
+    }
+
+    /**
+     * Returns the sync tables of the object class by the keys of their watermarks in the sync token.
+     */
+    public Map<String, String> getWatermarkTables() {
+        Map<String, String> watermarkTables = new LinkedHashMap<>();
+
+        for (String table : getSyncTables()) {
+
+            watermarkTables.put(getWatermarkKey(table), table);
+        }
+
+        return watermarkTables;
+    }
+
+    /**
+     * Returns the key of the watermark of the table in the sync token. The membership table is scanned for
+     * the changes of both object classes, so each of them records its own watermark of the table, qualified by
+     * the relation column.
+     */
+    protected String getWatermarkKey(String table) {
+
+        if (table.equals(getMembershipTableName())) {
+
+            return table + "." + getRelationAttributeName();
+        }
+
+        return table;
+    }
+
+    /**
+     * Creates the latest sync token of the tables, given by the keys of their watermarks. The latest modification
+     * time stamp of each table is looked up separately, so each of the lookups is answered by an index on
+     * the 'last_modified' column.
+     */
+    public SyncToken getLatestSyncToken(Connection connection, Map<String, String> watermarkTables) {
+        LOG.ok("Processing through the 'getLatestSyncToken' method for the tables {0}", watermarkTables.values());
+
+        Map<String, Long> latestModifications = getLatestModifications(connection,
+                new ArrayList<>(new LinkedHashSet<>(watermarkTables.values())));
+        Long latest = null;
+
+        for (Long modified : latestModifications.values()) {
+
+            if (modified != null && (latest == null || modified > latest)) {
+
+                latest = modified;
+            }
+        }
+
+        if (latest == null) {
+
+            return null;
+        }
+
+        if (isWatermarkSync()) {
+
+            Map<String, Long> watermarks = new HashMap<>();
+
+            for (String watermarkKey : watermarkTables.keySet()) {
+
+                Long modified = latestModifications.get(watermarkTables.get(watermarkKey));
+                watermarks.put(watermarkKey, modified != null ? modified : 0L);
+            }
+
+            return GrouperSyncToken.of(watermarks).toSyncToken();
+        }
+
+        return new SyncToken(latest);
+    }
+
+    private Map<String, Long> getLatestModifications(Connection connection, List<String> tables) {
+        Map<String, Long> latestModifications = new LinkedHashMap<>();
+        String query = QueryBuilder.buildLatestModificationQuery(tables);
+
+        try (ReadTransaction transaction = openReadTransaction(connection);
+             PreparedStatement prepareStatement = transaction.prepareStatement(query);
+             ResultSet result = prepareStatement.executeQuery()) {
+
+            if (!result.next()) {
+
+                throw new ConnectorException("Latest sync token could not be fetched.");
+            }
+
+            for (int i = 0; i < tables.size(); i++) {
+
+                long modified = result.getLong(i + 1);
+                latestModifications.put(tables.get(i), result.wasNull() ? null : modified);
+            }
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred during the Get Latest Sync Token operation. " +
+                    "The tables being handled: " + tables;
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+
+        return latestModifications;
+    }
+
+    /**
+     * Moves the keyset of a sync query after the last object of the page and adapts the size of the next page
+     * to the time the page was read in.
+     *
+     * @return false in case the page was the last one
+     */
+    public boolean setNextSyncKeyset(QueryBuilder syncQueryBuilder, Map<String, GrouperObject> page,
+                                     Integer maxPageSize, long elapsed) {
+
+        if (page.size() < syncQueryBuilder.getPageSize()) {
+
+            return false;
+        }
+
+        GrouperObject lastObject = null;
+
+        for (GrouperObject grouperObject : page.values()) {
+
+            lastObject = grouperObject;
+        }
+
+        syncQueryBuilder.setKeyset(lastObject.getLatestTimestamp(), lastObject.getIdentifier());
+        syncQueryBuilder.setPageSize(pager.nextPageSize(syncQueryBuilder.getPageSize(), maxPageSize, elapsed,
+                page.size(), page.size()));
+
+        return true;
+    }
+
+    /**
+     * Evaluates a keyset paged page of search results. In case the page was full, the rows of the last object
+     * might have been cut by the row limit, so the last object is held back and fetched again as the first object
+     * of the next page. In case the page contains only one object, the page size is doubled and the page
+     * is fetched again. Otherwise, the size of the next page is adapted to the time the page was read in.
+     *
+     * @return true in case the next page should be fetched
+     */
+    protected boolean evaluateKeysetPage(QueryBuilder queryBuilder, Map<String, GrouperObject> objects,
+                                         int rows, long elapsed) {
+
+        if (rows < queryBuilder.getPageSize()) {
+
+            return false;
+        }
+
+        String lastIdentifier = null;
+        String previousIdentifier = null;
+
+        for (String identifier : objects.keySet()) {
+
+            previousIdentifier = lastIdentifier;
+            lastIdentifier = identifier;
+        }
+
+        int objectCount = objects.size();
+
+        objects.remove(lastIdentifier);
+
+        if (previousIdentifier != null) {
+
+            queryBuilder.setKeyset(null, previousIdentifier);
+            queryBuilder.setPageSize(pager.nextPageSize(queryBuilder.getPageSize(), configuration.getMaxPageSize(),
+                    elapsed, rows, objectCount));
+        } else {
+
+            LOG.ok("Page filled by the rows of a single object, doubling the page size: {0}",
+                    queryBuilder.getPageSize());
+            queryBuilder.setPageSize(queryBuilder.getPageSize() * 2);
+        }
+
+        return true;
+    }
+
+    /**
+     * Page of search results, the objects are held in the order of their identifiers.
+     */
+    protected static class ObjectPage {
+        private final Map<String, GrouperObject> objects;
+        private final Integer totalCount;
+        private final boolean hasNextPage;
+
+        protected ObjectPage(Map<String, GrouperObject> objects, Integer totalCount, boolean hasNextPage) {
+            this.objects = objects;
+            this.totalCount = totalCount;
+            this.hasNextPage = hasNextPage;
+        }
+
+        protected Map<String, GrouperObject> getObjects() {
+            return objects;
+        }
+
+        protected Integer getTotalCount() {
+            return totalCount;
+        }
+
+        protected boolean hasNextPage() {
+            return hasNextPage;
+        }
+    }
+}
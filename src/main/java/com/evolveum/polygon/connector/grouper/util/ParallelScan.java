@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.ConnectorObject;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.ResultsHandler;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Search of all the objects of an object class, split into key ranges read in parallel. Each range is searched
+ * in its own thread, using its own instance of the processing and its own connection. The found objects are
+ * handed off through a bounded queue and passed to the handler by the thread executing the scan, so the handler
+ * is never called concurrently.
+ * <p>
+ * The objects are passed on in no particular order. In case the handler refuses an object, the searches of all
+ * the ranges are stopped.
+ */
+public class ParallelScan {
+    private static final Log LOG = Log.getLog(ParallelScan.class);
+    private static final int QUEUE_CAPACITY = 1000;
+    // Marks the end of the objects of a range in the queue
+    private static final Object END = new Object();
+
+    private final OperationOptions operationOptions;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile RuntimeException failure;
+    private volatile boolean stopped = false;
+
+    public ParallelScan(OperationOptions operationOptions) {
+        this.operationOptions = operationOptions;
+    }
+
+    /**
+     * Adds a range searched by the processing on the connection. The connection is used only by the thread of the
+     * range, so it must not be shared with any other range.
+     */
+    public void addRange(ObjectProcessing processing, Filter rangeFilter, Connection connection) {
+        Thread thread = new Thread(() -> search(processing, rangeFilter, connection), "grouper-parallel-scan-"
+                + processing.getMainTableName() + "-" + threads.size());
+
+        thread.setDaemon(true);
+        threads.add(thread);
+    }
+
+    /**
+     * Starts the searches of the ranges and passes the found objects to the handler, until all the ranges are
+     * read or the handler refuses an object. The scan has to be closed after use.
+     */
+    public void execute(ResultsHandler handler) {
+        LOG.ok("Scanning {0} key ranges in parallel", threads.size());
+
+        for (Thread thread : threads) {
+
+            thread.start();
+        }
+
+        int finished = 0;
+
+        while (finished < threads.size()) {
+            Object object;
+
+            try {
+                object = queue.take();
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new ConnectorException("Interrupted while waiting for the objects of the parallel scan.");
+            }
+
+            if (object == END) {
+
+                finished++;
+
+                if (failure != null) {
+
+                    throw failure;
+                }
+
+                continue;
+            }
+
+            if (!handler.handle((ConnectorObject) object)) {
+
+                LOG.warn("Result handling interrupted by handler!");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the searches of the ranges and waits until the threads stop using their connections.
+     */
+    public void close() {
+        stopped = true;
+
+        for (Thread thread : threads) {
+
+            thread.interrupt();
+        }
+
+        queue.clear();
+
+        for (Thread thread : threads) {
+
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void search(ObjectProcessing processing, Filter rangeFilter, Connection connection) {
+        try {
+            processing.executeQuery(rangeFilter, this::handOff, operationOptions, connection);
+        } catch (RuntimeException e) {
+
+            if (!stopped && failure == null) {
+
+                failure = e;
+            }
+        }
+
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+
+            LOG.ok("Parallel scan of the range {0} interrupted", rangeFilter);
+        }
+    }
+
+    private boolean handOff(ConnectorObject connectorObject) {
+
+        if (stopped) {
+
+            return false;
+        }
+
+        try {
+            queue.put(connectorObject);
+        } catch (InterruptedException e) {
+
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -1,489 +1,998 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper.util;
-
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.framework.common.exceptions.ConnectorException;
-import org.identityconnectors.framework.common.objects.ObjectClass;
-import org.identityconnectors.framework.common.objects.OperationOptions;
-import org.identityconnectors.framework.common.objects.filter.ContainsAllValuesFilter;
-import org.identityconnectors.framework.common.objects.filter.Filter;
-
-import java.util.*;
-
-public class QueryBuilder {
-    private static final Log LOG = Log.getLog(QueryBuilder.class);
-    private static final String _OFFSET = "OFFSET";
-    private final String selectTable;
-    private static final String _WHERE = "WHERE";
-    private static final String _INNER = "INNER";
-    private static final String _LEFT = "LEFT";
-    private static final String _JOIN = "JOIN";
-    private static final String _ON = "ON";
-    private static final String _IN = "IN";
-    private static final String _LIMIT = "LIMIT";
-    private static final String _GROUP_BY = "GROUP BY";
-    private static final String _ORDER_BY_ASC = "ORDER BY";
-    private static final String _GREATEST = "GREATEST";
-    private static final String _MAX = "MAX";
-    private static final String _ASC = "ASC";
-    private static Integer limit;
-    private OperationOptions operationOptions = null;
-    private final ObjectClass objectClass;
-    private String joinStatement;
-    private ResourceQuery translatedFilter;
-    private boolean useFullAlias = false;
-    private boolean asSyncQuery = false;
-
-    private Set<String> orderByASC = new HashSet<>();
-    private Map<String, Map<String, Class>> columns;
-
-    private Map<Map<String, String>, String> joinPair;
-
-    private Set<String> groupByColumns = new HashSet<>();
-    private Map<String, Set<String>> inStatement = new HashMap<>();
-    private Integer totalCount;
-    private Integer offset;
-    private Integer pageSize;
-    private Integer pageOffset;
-    private String pageCookie;
-    private Filter filter;
-    private boolean asCount = false;
-
-    public QueryBuilder(ObjectClass objectClass, String selectTable, Integer limit) {
-
-        this(objectClass, null, null, selectTable, null, null, limit);
-    }
-
-    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
-                        String selectTable, OperationOptions oo) {
-        this(objectClass, filter, columns, selectTable, null, oo, null);
-    }
-
-    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
-                        String selectTable, Map<Map<String, String>, String> joinPair,
-                        OperationOptions operationOptions) {
-        this(objectClass, filter, columns, selectTable, joinPair, operationOptions, null);
-    }
-
-    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
-                        String selectTable, Map<Map<String, String>, String> joinPair,
-                        OperationOptions operationOptions, Integer limit) {
-
-        if (filter == null) {
-
-            if (inStatement != null && !inStatement.isEmpty()) {
-                LOG.ok("Empty query parameter, returning full list of objects of the object class: {0}"
-                        , objectClass);
-            }
-            this.translatedFilter = null;
-        } else {
-
-            this.filter = filter;
-            this.translatedFilter = filter.accept(new FilterHandler(),
-                    new ResourceQuery(objectClass, columns));
-        }
-
-        if (joinPair != null) {
-            if (filter != null && filter instanceof ContainsAllValuesFilter) {
-
-                joinStatement = _INNER + " " + _JOIN;
-            } else {
-
-                joinStatement = _LEFT + " " + _JOIN;
-            }
-        }
-
-        this.columns = columns;
-        this.selectTable = selectTable;
-        this.joinPair = joinPair;
-        this.limit = limit;
-
-        if (operationOptions != null) {
-            this.operationOptions = operationOptions;
-        }
-        this.objectClass = objectClass;
-    }
-
-
-    public String build() {
-
-        String statementString = select(columns, selectTable);
-
-        if (joinPair != null && !joinPair.isEmpty()) {
-
-            LOG.ok("Starting the parsing of join map.");
-
-            for (Map<String, String> selectTableJoinMap : joinPair.keySet()) {
-
-                String selectTableJoinParam = joinPair.get(selectTableJoinMap);
-
-                LOG.ok("Parsing join map in regards to join parameter {0} of the table {1}.", selectTableJoinParam,
-                        selectTable);
-
-                for (String joinTable : selectTableJoinMap.keySet()) {
-
-                    String joinParam = selectTableJoinMap.get(joinTable);
-                    LOG.ok("Augmenting Select, joining with table {0} on the parameter {1}.", joinTable,
-                            joinParam);
-
-                    statementString = statementString + " " + joinStatement + " " + joinTable + " " + _ON + " "
-                            + selectTable + "." + selectTableJoinParam + " " + "=" + " " + joinTable + "." + joinParam;
-                }
-            }
-        }
-        Map<String, Object> o_options = null;
-        if (operationOptions != null) {
-
-            o_options = operationOptions.getOptions();
-        }
-        if (translatedFilter != null ||
-                (operationOptions != null)) {
-
-            if ((operationOptions != null && o_options.containsKey(OperationOptions.OP_PAGE_SIZE)) ||
-                    (pageSize != null && pageOffset != null)) {
-
-                if (pageSize != null) {
-
-                } else {
-                    pageSize = operationOptions.getPageSize();
-                }
-                if (pageOffset != null) {
-
-                } else {
-                    pageOffset = operationOptions.getPagedResultsOffset();
-                }
-
-                if (pageOffset != null && pageOffset != 0) {
-
-                    pageOffset = pageOffset - 1;
-                }
-                pageCookie = operationOptions.getPagedResultsCookie();
-
-                LOG.ok("Constructing query with the following parameters, pageSize: {0}", pageSize);
-                LOG.ok("Page offset: {0}", pageOffset);
-                LOG.ok("Page cookie: {0}", pageCookie);
-            }
-
-
-            String idAttr = null;
-
-            if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
-
-                idAttr = SubjectProcessing.TABLE_SU_NAME + "." + SubjectProcessing.ATTR_UID;
-
-            } else if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
-
-                idAttr = GroupProcessing.TABLE_GR_NAME + "." + GroupProcessing.ATTR_UID;
-
-            }
-
-            if (pageSize != null) {
-
-                if (pageCookie != null) {
-
-
-                    statementString = statementString + " " + _WHERE + " " + idAttr + " > " + pageCookie;
-
-                    if (translatedFilter != null) {
-
-                        statementString = statementString + " AND (" +
-                                translatedFilter.getCurrentQuerySnippet() + ")";
-                    }
-
-                    orderByASC = orderByASC != null && !orderByASC.isEmpty() ? orderByASC : Set.of(idAttr);
-                    limit = pageSize;
-
-                } else if ((pageCookie == null || (pageCookie != null && pageCookie.isEmpty()))
-                        && pageOffset != null) {
-
-                    limit = pageSize;
-                    offset = pageOffset;
-
-
-                    orderByASC = orderByASC != null && !orderByASC.isEmpty() ? orderByASC : Set.of(idAttr);
-
-                    if (translatedFilter != null) {
-
-                        statementString = statementString + " " + _WHERE + " "
-                                + translatedFilter.getCurrentQuerySnippet();
-                    }
-
-                } else {
-
-                    throw new ConnectorException("Unexpected situation while building paged search. Page Size: "
-                            + pageSize + ".Page cookie:  " + pageCookie + ". PageOffset: " + pageOffset);
-                }
-
-            } else {
-
-                statementString = statementString + " " + _WHERE + " " + translatedFilter.getCurrentQuerySnippet();
-            }
-        }
-
-        if (inStatement != null && !inStatement.isEmpty()) {
-
-            LinkedHashSet<String> inSet = null;
-            String queryAttr = null;
-
-            for (String attrNam : inStatement.keySet()) {
-
-                queryAttr = attrNam;
-                inSet = (LinkedHashSet<String>) inStatement.get(attrNam);
-
-                //Expecting only one query attribute
-                break;
-            }
-
-            if (inSet != null && !inSet.isEmpty()) {
-            } else {
-                throw new ConnectorException("Exception while listing changed accounts for the SYNC operation, " +
-                        "list of changed accounts is empty");
-            }
-
-            statementString = statementString + " " + _WHERE + " " + queryAttr + " " + _IN + "(";
-
-            Iterator<String> inIterator = inSet.iterator();
-            while (inIterator.hasNext()) {
-
-                String inStatement = inIterator.next();
-                statementString = statementString + inStatement;
-
-                if (!inIterator.hasNext()) {
-                } else {
-
-                    statementString = statementString + ", ";
-                }
-            }
-
-            statementString = statementString + ")";
-        }
-
-
-        if (asSyncQuery && groupByColumns != null
-                && !groupByColumns.isEmpty()) {
-
-            statementString = statementString + " " + _GROUP_BY + "";
-
-            Iterator<String> grpByIterator = groupByColumns.iterator();
-
-            while (grpByIterator.hasNext()) {
-
-                String column = grpByIterator.next();
-                statementString = statementString + " " + column;
-                if (!grpByIterator.hasNext()) {
-                } else {
-
-                    statementString = statementString + ",";
-                }
-            }
-        }
-
-        if (orderByASC != null && !orderByASC.isEmpty()) {
-
-            Iterator<String> orderIterator = orderByASC.iterator();
-            statementString = statementString + " " + _ORDER_BY_ASC;
-            while (orderIterator.hasNext()) {
-                String orderElement = orderIterator.next();
-
-                statementString = statementString + " " + orderElement;
-                if (!orderIterator.hasNext()) {
-                } else {
-
-                    statementString = statementString + ",";
-                }
-            }
-        }
-
-        if (limit != null) {
-
-            statementString = statementString + " " + _LIMIT + " " + limit;
-        }
-
-        if (offset != null) {
-
-            statementString = statementString + " " + _OFFSET + " " + offset;
-        }
-
-        if (asCount) {
-            statementString = statementString + ") AS cquery";
-        }
-        LOG.ok("Using the following statement string in the select statement: {0}", statementString);
-        return statementString;
-    }
-
-    private String select(Map<String, Map<String, Class>> tablesAndColumns, String selectTable) {
-
-        if (selectTable != null && !selectTable.isEmpty()) {
-        } else {
-
-            throw new ConnectorException("Exception while building select statements for database query, no table name" +
-                    "value defined for query.");
-        }
-
-        StringBuilder ret = new StringBuilder("SELECT ");
-        Set<String> modColumns = new HashSet<>();
-
-        if (asCount) {
-            ret.append("COUNT(*) FROM ( SELECT ");
-        }
-
-        if (tablesAndColumns == null) {
-
-            ret.append("*");
-            ret.append(" ");
-        } else {
-
-            boolean first = true;
-
-            int noOfTables = tablesAndColumns.keySet().size();
-
-            for (String key : tablesAndColumns.keySet()) {
-                Map<String, Class> columnsMap = tablesAndColumns.get(key);
-
-                for (String cName : columnsMap.keySet()) {
-
-                    String name = cName;
-                    if (asSyncQuery) {
-
-                        if (ObjectProcessing.ATTR_MODIFIED.equals(name)) {
-
-                            modColumns.add(key + "." + name);
-                            continue;
-                        } else {
-
-                            groupByColumns.add(key + "." + name);
-                        }
-
-                    }
-
-                    LOG.ok("Column name used in select statement: {0}", name);
-                    if (!first) {
-                        ret.append(", ");
-                    }
-
-                    if (noOfTables > 1) {
-                        ret.append(key + "." + name);
-
-                        if (useFullAlias) {
-
-                            ret.append(" AS " + key + "$" + name);
-                        }
-
-                    } else {
-
-                        ret.append(name);
-                    }
-                    ret.append(" ");
-                    first = false;
-                }
-
-            }
-        }
-
-        if (asSyncQuery) {
-            if (groupByColumns != null && !groupByColumns.isEmpty()) {
-                ret.append(",");
-            }
-            ret.append(buildOneFromMany(modColumns));
-        }
-
-
-        ret.append("FROM ");
-        ret.append(selectTable);
-        return ret.toString();
-    }
-
-    private String buildOneFromMany(Set<String> modColumns) {
-        String out = _GREATEST + "(";
-
-        Iterator<String> columnIterator = modColumns.iterator();
-
-        while (columnIterator.hasNext()) {
-            String name = columnIterator.next();
-            out = out + " " + _MAX + "(" + name + ")";
-            if (!columnIterator.hasNext()) {
-            } else {
-                out = out + " ,";
-            }
-        }
-
-        out = out + ") AS " + ObjectProcessing.ATTR_MODIFIED_LATEST + " ";
-
-        return out;
-    }
-
-    public String buildSyncTokenQuery() {
-        asSyncQuery = true;
-        String statementString = build();
-
-        statementString = "SELECT " + _MAX + "(" + ObjectProcessing.ATTR_MODIFIED_LATEST + ")" + " FROM ("
-                + statementString + ")";
-        statementString = statementString + "AS time_max";
-
-        return statementString;
-    }
-
-    public void setUseFullAlias(boolean useFullAlias) {
-        this.useFullAlias = useFullAlias;
-    }
-
-    public void setOrderByASC(Set<String> orderByASC) {
-        this.orderByASC = orderByASC;
-    }
-
-    public void setAsSyncQuery(boolean asSyncQuery) {
-        this.asSyncQuery = asSyncQuery;
-    }
-
-    public void setInStatement(Map<String, Set<String>> inStatement) {
-        this.inStatement = inStatement;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setPageOffset(Integer pageOffset) {
-        this.pageOffset = pageOffset;
-    }
-
-    public QueryBuilder clone() {
-
-        QueryBuilder clone = new QueryBuilder(objectClass, filter, columns, selectTable,
-                joinPair, operationOptions, limit);
-
-        clone.setAsSyncQuery(asSyncQuery);
-        clone.setOrderByASC(orderByASC);
-        clone.setUseFullAlias(useFullAlias);
-
-        return clone;
-    }
-
-    public void asCount() {
-
-        this.asCount = true;
-    }
-
-    public Integer getTotalCount() {
-        return totalCount;
-    }
-
-    public void setTotalCount(Integer totalCount) {
-        this.totalCount = totalCount;
-    }
-}
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.filter.ContainsAllValuesFilter;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+
+public class QueryBuilder {
+    private static final Log LOG = Log.getLog(QueryBuilder.class);
+    private static final String _OFFSET = "OFFSET";
+    private final String selectTable;
+    private static final String _WHERE = "WHERE";
+    private static final String _INNER = "INNER";
+    private static final String _LEFT = "LEFT";
+    private static final String _JOIN = "JOIN";
+    private static final String _ON = "ON";
+    private static final String _ANY = "ANY";
+    private static final String _LIMIT = "LIMIT";
+    private static final String _GROUP_BY = "GROUP BY";
+    private static final String _HAVING = "HAVING";
+    private static final String _ORDER_BY_ASC = "ORDER BY";
+    private static final String _GREATEST = "GREATEST";
+    private static final String _MAX = "MAX";
+    private static final String _MIN = "MIN";
+    private static final String _ASC = "ASC";
+    private static final String _BIND = "?";
+    private static final String _ARRAY = "ARRAY";
+    private static final String _BIGINT = "bigint";
+    private static final String _TEXT = "text";
+    private Integer limit;
+    private OperationOptions operationOptions = null;
+    private final ObjectClass objectClass;
+    private String joinStatement;
+    private ResourceQuery translatedFilter;
+    private boolean useFullAlias = false;
+    private boolean asSyncQuery = false;
+
+    private Set<String> orderByASC = new HashSet<>();
+    private Map<String, Map<String, Class>> columns;
+
+    private Map<Map<String, String>, String> joinPair;
+
+    private Set<String> groupByColumns = new HashSet<>();
+    private Map<String, Set<String>> inStatement = new HashMap<>();
+    private Integer offset;
+    private Integer pageSize;
+    private Integer pageOffset;
+    private String pageCookie;
+    private Filter filter;
+    private boolean countTotal = false;
+    private List<Object> parameters = new ArrayList<>();
+    private boolean keysetPaging = false;
+    private String keysetIdentifier;
+    private Long keysetTimestamp;
+    private String latestTimestampExpression;
+    private Map<String, List<String>> aggregatedColumns = new HashMap<>();
+    private boolean aggregatedExcludeDeleted = false;
+    private boolean aggregated = false;
+    private Map<String, String> watermarkTables;
+    private Map<String, Long> watermarks;
+    private boolean watermarksInclusive = false;
+    private Long tombstonesSince;
+    private boolean tombstonesInclusive = false;
+
+    public QueryBuilder(ObjectClass objectClass, String selectTable, Integer limit) {
+
+        this(objectClass, null, null, selectTable, null, null, limit);
+    }
+
+    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
+                        String selectTable, OperationOptions oo) {
+        this(objectClass, filter, columns, selectTable, null, oo, null);
+    }
+
+    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
+                        String selectTable, Map<Map<String, String>, String> joinPair,
+                        OperationOptions operationOptions) {
+        this(objectClass, filter, columns, selectTable, joinPair, operationOptions, null);
+    }
+
+    public QueryBuilder(ObjectClass objectClass, Filter filter, Map<String, Map<String, Class>> columns,
+                        String selectTable, Map<Map<String, String>, String> joinPair,
+                        OperationOptions operationOptions, Integer limit) {
+
+        if (filter == null) {
+
+            if (inStatement != null && !inStatement.isEmpty()) {
+                LOG.ok("Empty query parameter, returning full list of objects of the object class: {0}"
+                        , objectClass);
+            }
+            this.translatedFilter = null;
+        } else {
+
+            this.filter = filter;
+            this.translatedFilter = filter.accept(new FilterHandler(),
+                    new ResourceQuery(objectClass, columns));
+        }
+
+        if (joinPair != null) {
+            if (filter != null && filter instanceof ContainsAllValuesFilter) {
+
+                joinStatement = _INNER + " " + _JOIN;
+            } else {
+
+                joinStatement = _LEFT + " " + _JOIN;
+            }
+        }
+
+        this.columns = columns;
+        this.selectTable = selectTable;
+        this.joinPair = joinPair;
+        this.limit = limit;
+
+        if (operationOptions != null) {
+            this.operationOptions = operationOptions;
+        }
+        this.objectClass = objectClass;
+    }
+
+
+    public String build() {
+
+        parameters = new ArrayList<>();
+
+        if (watermarkTables != null) {
+
+            return buildWatermarkQuery();
+        }
+
+        if (tombstonesSince != null) {
+
+            return buildTombstoneQuery();
+        }
+
+        aggregated = isAggregated();
+        String statementString = select(columns, selectTable);
+
+        if (joinPair != null && !joinPair.isEmpty() && !aggregated) {
+
+            LOG.ok("Starting the parsing of join map.");
+
+            for (Map<String, String> selectTableJoinMap : joinPair.keySet()) {
+
+                String selectTableJoinParam = joinPair.get(selectTableJoinMap);
+
+                LOG.ok("Parsing join map in regards to join parameter {0} of the table {1}.", selectTableJoinParam,
+                        selectTable);
+
+                for (String joinTable : selectTableJoinMap.keySet()) {
+
+                    String joinParam = selectTableJoinMap.get(joinTable);
+                    LOG.ok("Augmenting Select, joining with table {0} on the parameter {1}.", joinTable,
+                            joinParam);
+
+                    statementString = statementString + " " + joinStatement + " " + joinTable + " " + _ON + " "
+                            + selectTable + "." + selectTableJoinParam + " " + "=" + " " + joinTable + "." + joinParam;
+                }
+            }
+        }
+        Map<String, Object> o_options = null;
+        if (operationOptions != null) {
+
+            o_options = operationOptions.getOptions();
+        }
+        String idAttr = getIdentifierAttribute();
+
+        if (keysetPaging && pageSize != null) {
+
+            statementString = keysetConditions(statementString, idAttr);
+
+        } else if (translatedFilter != null ||
+                (operationOptions != null)) {
+
+            if ((operationOptions != null && o_options.containsKey(OperationOptions.OP_PAGE_SIZE)) ||
+                    (pageSize != null && pageOffset != null)) {
+
+                if (pageSize != null) {
+
+                } else {
+                    pageSize = operationOptions.getPageSize();
+                }
+                if (pageOffset != null) {
+
+                } else {
+                    pageOffset = operationOptions.getPagedResultsOffset();
+                }
+
+                if (pageOffset != null && pageOffset != 0) {
+
+                    pageOffset = pageOffset - 1;
+                }
+                pageCookie = operationOptions.getPagedResultsCookie();
+
+                LOG.ok("Constructing query with the following parameters, pageSize: {0}", pageSize);
+                LOG.ok("Page offset: {0}", pageOffset);
+                LOG.ok("Page cookie: {0}", pageCookie);
+            }
+
+            if (pageSize != null) {
+
+                if (pageCookie != null) {
+
+
+                    statementString = statementString + " " + _WHERE + " " + idAttr + " > " + _BIND;
+                    parameters.add(toLong(pageCookie));
+
+                    if (translatedFilter != null) {
+
+                        statementString = statementString + " AND (" +
+                                translatedFilter.getCurrentQuerySnippet() + ")";
+                        parameters.addAll(translatedFilter.getParameters());
+                    }
+
+                    orderByASC = orderByASC != null && !orderByASC.isEmpty() ? orderByASC : Set.of(idAttr);
+                    limit = pageSize;
+
+                } else if ((pageCookie == null || (pageCookie != null && pageCookie.isEmpty()))
+                        && pageOffset != null) {
+
+                    limit = pageSize;
+                    offset = pageOffset;
+
+
+                    orderByASC = orderByASC != null && !orderByASC.isEmpty() ? orderByASC : Set.of(idAttr);
+
+                    if (translatedFilter != null) {
+
+                        statementString = statementString + " " + _WHERE + " "
+                                + translatedFilter.getCurrentQuerySnippet();
+                        parameters.addAll(translatedFilter.getParameters());
+                    }
+
+                } else {
+
+                    throw new ConnectorException("Unexpected situation while building paged search. Page Size: "
+                            + pageSize + ".Page cookie:  " + pageCookie + ". PageOffset: " + pageOffset);
+                }
+
+            } else {
+
+                statementString = statementString + " " + _WHERE + " " + translatedFilter.getCurrentQuerySnippet();
+                parameters.addAll(translatedFilter.getParameters());
+            }
+        }
+
+        if (inStatement != null && !inStatement.isEmpty()) {
+
+            LinkedHashSet<String> inSet = null;
+            String queryAttr = null;
+
+            for (String attrNam : inStatement.keySet()) {
+
+                queryAttr = attrNam;
+                inSet = (LinkedHashSet<String>) inStatement.get(attrNam);
+
+                //Expecting only one query attribute
+                break;
+            }
+
+            if (inSet != null && !inSet.isEmpty()) {
+            } else {
+                throw new ConnectorException("Exception while listing changed accounts for the SYNC operation, " +
+                        "list of changed accounts is empty");
+            }
+
+            Long[] identifiers = new Long[inSet.size()];
+            int index = 0;
+
+            for (String identifier : inSet) {
+
+                identifiers[index++] = toLong(identifier);
+            }
+
+            statementString = statementString + " " + _WHERE + " " + queryAttr + " = " + _ANY + "(" + _BIND + ")";
+            parameters.add(identifiers);
+        }
+
+
+        if (asSyncQuery && groupByColumns != null
+                && !groupByColumns.isEmpty()) {
+
+            statementString = statementString + " " + _GROUP_BY + "";
+
+            Iterator<String> grpByIterator = groupByColumns.iterator();
+
+            while (grpByIterator.hasNext()) {
+
+                String column = grpByIterator.next();
+                statementString = statementString + " " + column;
+                if (!grpByIterator.hasNext()) {
+                } else {
+
+                    statementString = statementString + ",";
+                }
+            }
+
+            if (keysetTimestamp != null) {
+
+                statementString = statementString + " " + _HAVING + " " + syncKeysetCondition(
+                        latestTimestampExpression, idAttr);
+            }
+        }
+
+        if (orderByASC != null && !orderByASC.isEmpty()) {
+
+            Iterator<String> orderIterator = orderByASC.iterator();
+            statementString = statementString + " " + _ORDER_BY_ASC;
+            while (orderIterator.hasNext()) {
+                String orderElement = orderIterator.next();
+
+                statementString = statementString + " " + orderElement;
+                if (!orderIterator.hasNext()) {
+                } else {
+
+                    statementString = statementString + ",";
+                }
+            }
+        }
+
+        if (limit != null) {
+
+            statementString = statementString + " " + _LIMIT + " " + _BIND;
+            parameters.add(limit);
+        }
+
+        if (offset != null) {
+
+            statementString = statementString + " " + _OFFSET + " " + _BIND;
+            parameters.add(offset);
+        }
+
+        LOG.ok("Using the following statement string in the select statement: {0}", statementString);
+        LOG.ok("Using the following bind parameters in the select statement: {0}", parameters);
+        return statementString;
+    }
+
+    /**
+     * Builds the sync query of the watermark based synchronization. Each of the tables is scanned by a separate
+     * range condition on its own watermark, the identifiers of the changed objects are united and only then
+     * grouped, so the cost of the query depends on the number of changed rows. Deleted objects are excluded,
+     * those are read by the tombstone query.
+     */
+    private String buildWatermarkQuery() {
+        String idAttr = getIdentifierAttribute();
+        String changes = "";
+
+        Iterator<String> tableIterator = watermarkTables.keySet().iterator();
+
+        while (tableIterator.hasNext()) {
+            String table = tableIterator.next();
+
+            changes = changes + "SELECT " + table + "." + watermarkTables.get(table) + " AS object_id, " + table
+                    + "." + ObjectProcessing.ATTR_MODIFIED + " FROM " + table + " " + _WHERE + " " + table + "."
+                    + ObjectProcessing.ATTR_MODIFIED + (watermarksInclusive ? " >= " : " > ") + _BIND;
+            parameters.add(watermarks.get(table));
+
+            if (tableIterator.hasNext()) {
+
+                changes = changes + " UNION ALL ";
+            }
+        }
+
+        String statementString = "SELECT " + idAttr + " AS " + idAttr.replace(".", "$") + ", " + selectTable + "."
+                + ObjectProcessing.ATTR_DELETED + " AS " + selectTable + "$" + ObjectProcessing.ATTR_DELETED
+                + ", changes." + ObjectProcessing.ATTR_MODIFIED_LATEST + " AS " + ObjectProcessing.ATTR_MODIFIED_LATEST
+                + " FROM (SELECT object_id, " + _MAX + "(" + ObjectProcessing.ATTR_MODIFIED + ") AS "
+                + ObjectProcessing.ATTR_MODIFIED_LATEST + " FROM (" + changes + ") AS changed_rows " + _GROUP_BY
+                + " object_id) AS changes " + _INNER + " " + _JOIN + " " + selectTable + " " + _ON + " " + idAttr
+                + " = changes.object_id";
+
+        // Deleted objects are read by the tombstone query
+        statementString = statementString + " " + _WHERE + " " + selectTable + "." + ObjectProcessing.ATTR_DELETED
+                + " = " + _BIND;
+        parameters.add(ObjectProcessing.ATTR_DELETED_FALSE);
+
+        if (keysetTimestamp != null) {
+
+            statementString = statementString + " AND " + syncKeysetCondition("changes."
+                    + ObjectProcessing.ATTR_MODIFIED_LATEST, idAttr);
+        }
+
+        statementString = statementString + " " + _ORDER_BY_ASC + " changes." + ObjectProcessing.ATTR_MODIFIED_LATEST
+                + ", " + idAttr;
+
+        Integer rowLimit = keysetPaging && pageSize != null ? pageSize : limit;
+
+        if (rowLimit != null) {
+
+            statementString = statementString + " " + _LIMIT + " " + _BIND;
+            parameters.add(rowLimit);
+        }
+
+        LOG.ok("Using the following statement string in the watermark sync statement: {0}", statementString);
+        LOG.ok("Using the following bind parameters in the watermark sync statement: {0}", parameters);
+        return statementString;
+    }
+
+    /**
+     * Builds the sync query of the deleted objects. Only the identifiers and the modification time stamps
+     * of the deleted rows of the main table are read, no related table is joined.
+     */
+    private String buildTombstoneQuery() {
+        String idAttr = getIdentifierAttribute();
+        String modified = selectTable + "." + ObjectProcessing.ATTR_MODIFIED;
+
+        String statementString = "SELECT " + idAttr + " AS " + idAttr.replace(".", "$") + ", " + selectTable + "."
+                + ObjectProcessing.ATTR_DELETED + " AS " + selectTable + "$" + ObjectProcessing.ATTR_DELETED + ", "
+                + modified + " AS " + ObjectProcessing.ATTR_MODIFIED_LATEST + " FROM " + selectTable + " " + _WHERE
+                + " " + selectTable + "." + ObjectProcessing.ATTR_DELETED + " = " + _BIND + " AND " + modified
+                + (tombstonesInclusive ? " >= " : " > ") + _BIND;
+        parameters.add(ObjectProcessing.ATTR_DELETED_TRUE);
+        parameters.add(tombstonesSince);
+
+        if (keysetTimestamp != null) {
+
+            statementString = statementString + " AND " + syncKeysetCondition(modified, idAttr);
+        }
+
+        statementString = statementString + " " + _ORDER_BY_ASC + " " + modified + ", " + idAttr;
+
+        Integer rowLimit = keysetPaging && pageSize != null ? pageSize : limit;
+
+        if (rowLimit != null) {
+
+            statementString = statementString + " " + _LIMIT + " " + _BIND;
+            parameters.add(rowLimit);
+        }
+
+        LOG.ok("Using the following statement string in the tombstone sync statement: {0}", statementString);
+        LOG.ok("Using the following bind parameters in the tombstone sync statement: {0}", parameters);
+        return statementString;
+    }
+
+    /**
+     * Condition resuming a sync query after the keyset. Without the keyset identifier, the changes with the keyset
+     * time stamp are skipped altogether.
+     */
+    private String syncKeysetCondition(String latestTimestamp, String idAttr) {
+
+        parameters.add(keysetTimestamp);
+
+        if (keysetIdentifier == null) {
+
+            return latestTimestamp + " > " + _BIND;
+        }
+
+        parameters.add(toLong(keysetIdentifier));
+
+        return "(" + latestTimestamp + ", " + idAttr + ") > (" + _BIND + ", " + _BIND + ")";
+    }
+
+    private String keysetConditions(String statementString, String idAttr) {
+
+        LOG.ok("Constructing keyset paged query with the page size: {0}, last identifier: {1}, last timestamp: {2}",
+                pageSize, keysetIdentifier, keysetTimestamp);
+
+        if (!asSyncQuery && keysetIdentifier != null) {
+
+            statementString = statementString + " " + _WHERE + " " + idAttr + " > " + _BIND;
+            parameters.add(toLong(keysetIdentifier));
+
+            if (translatedFilter != null) {
+
+                statementString = statementString + " AND (" +
+                        translatedFilter.getCurrentQuerySnippet() + ")";
+                parameters.addAll(translatedFilter.getParameters());
+            }
+        } else if (translatedFilter != null) {
+
+            statementString = statementString + " " + _WHERE + " " + translatedFilter.getCurrentQuerySnippet();
+            parameters.addAll(translatedFilter.getParameters());
+        }
+
+        if (asSyncQuery) {
+
+            orderByASC = new LinkedHashSet<>(List.of(ObjectProcessing.ATTR_MODIFIED_LATEST, idAttr));
+        } else {
+
+            orderByASC = Set.of(idAttr);
+        }
+
+        limit = pageSize;
+        offset = null;
+
+        return statementString;
+    }
+
+    private String getIdentifierAttribute() {
+
+        if (objectClass.is(ObjectProcessing.SUBJECT_NAME)) {
+
+            return SubjectProcessing.TABLE_SU_NAME + "." + SubjectProcessing.ATTR_UID;
+
+        } else if (objectClass.is(ObjectProcessing.GROUP_NAME)) {
+
+            return GroupProcessing.TABLE_GR_NAME + "." + GroupProcessing.ATTR_UID;
+        }
+
+        return null;
+    }
+
+    private Long toLong(String value) {
+        try {
+
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+
+            throw new ConnectorException("Unexpected non numeric identifier value used in query construction: "
+                    + value);
+        }
+    }
+
+    /**
+     * Bind parameters of the statement produced by the last {@link QueryBuilder#build()} call, in the order
+     * of their placeholders.
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Binds the parameters with the JDBC type of their value, Long values to bigint columns, String values to
+     * text columns, Integer values to LIMIT and OFFSET and arrays as bigint or text arrays.
+     */
+    public static void bindParameters(PreparedStatement statement, List<Object> parameters) throws SQLException {
+
+        if (parameters == null) {
+
+            return;
+        }
+
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+
+            if (parameter == null) {
+
+                statement.setNull(i + 1, Types.NULL);
+            } else if (parameter instanceof Long) {
+
+                statement.setLong(i + 1, (Long) parameter);
+            } else if (parameter instanceof Integer) {
+
+                statement.setInt(i + 1, (Integer) parameter);
+            } else if (parameter instanceof String) {
+
+                statement.setString(i + 1, (String) parameter);
+            } else if (parameter instanceof Long[]) {
+
+                statement.setArray(i + 1, statement.getConnection().createArrayOf(_BIGINT, (Long[]) parameter));
+            } else if (parameter instanceof String[]) {
+
+                statement.setArray(i + 1, statement.getConnection().createArrayOf(_TEXT, (String[]) parameter));
+            } else {
+
+                throw new ConnectorException("Unexpected type of the bind parameter: " + parameter.getClass());
+            }
+        }
+    }
+
+    private String select(Map<String, Map<String, Class>> tablesAndColumns, String selectTable) {
+
+        if (selectTable != null && !selectTable.isEmpty()) {
+        } else {
+
+            throw new ConnectorException("Exception while building select statements for database query, no table name" +
+                    "value defined for query.");
+        }
+
+        StringBuilder ret = new StringBuilder("SELECT ");
+        Set<String> modColumns = new HashSet<>();
+
+        if (tablesAndColumns == null) {
+
+            ret.append("*");
+            ret.append(" ");
+        } else {
+
+            boolean first = true;
+
+            int noOfTables = tablesAndColumns.keySet().size();
+
+            for (String key : tablesAndColumns.keySet()) {
+
+                if (aggregated && !selectTable.equals(key)) {
+
+                    continue;
+                }
+
+                Map<String, Class> columnsMap = tablesAndColumns.get(key);
+
+                for (String cName : columnsMap.keySet()) {
+
+                    String name = cName;
+                    if (asSyncQuery) {
+
+                        if (ObjectProcessing.ATTR_MODIFIED.equals(name)) {
+
+                            modColumns.add(key + "." + name);
+                            continue;
+                        } else {
+
+                            groupByColumns.add(key + "." + name);
+                        }
+
+                    }
+
+                    LOG.ok("Column name used in select statement: {0}", name);
+                    if (!first) {
+                        ret.append(", ");
+                    }
+
+                    if (noOfTables > 1) {
+                        ret.append(key + "." + name);
+
+                        if (useFullAlias) {
+
+                            ret.append(" AS " + key + "$" + name);
+                        }
+
+                    } else {
+
+                        ret.append(name);
+                    }
+                    ret.append(" ");
+                    first = false;
+                }
+
+            }
+        }
+
+        if (asSyncQuery) {
+            if (groupByColumns != null && !groupByColumns.isEmpty()) {
+                ret.append(",");
+            }
+            latestTimestampExpression = buildOneFromMany(modColumns);
+            ret.append(latestTimestampExpression);
+            ret.append(" AS " + ObjectProcessing.ATTR_MODIFIED_LATEST + " ");
+        }
+
+        if (aggregated) {
+
+            ret.append(buildAggregatedColumns());
+        }
+
+        if (countTotal) {
+
+            ret.append(", COUNT(*) OVER() AS " + ObjectProcessing.ATTR_TOTAL_COUNT + " ");
+        }
+
+
+        ret.append("FROM ");
+        ret.append(selectTable);
+        return ret.toString();
+    }
+
+    private boolean isAggregated() {
+
+        if (aggregatedColumns.isEmpty() || joinPair == null || joinPair.isEmpty()) {
+
+            return false;
+        }
+
+        if (translatedFilter != null) {
+            for (String table : translatedFilter.getTables()) {
+
+                if (!selectTable.equals(table)) {
+
+                    LOG.ok("Filter references the joined table {0}, relations will not be aggregated", table);
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private String buildAggregatedColumns() {
+        StringBuilder ret = new StringBuilder();
+
+        for (Map<String, String> selectTableJoinMap : joinPair.keySet()) {
+
+            String selectTableJoinParam = joinPair.get(selectTableJoinMap);
+
+            for (String joinTable : selectTableJoinMap.keySet()) {
+
+                List<String> tableColumns = aggregatedColumns.get(joinTable);
+
+                if (tableColumns == null) {
+
+                    continue;
+                }
+
+                String joinParam = selectTableJoinMap.get(joinTable);
+
+                for (String column : tableColumns) {
+
+                    ret.append(", " + _ARRAY + "(SELECT " + joinTable + "." + column + " FROM " + joinTable + " "
+                            + _WHERE + " " + joinTable + "." + joinParam + " = " + selectTable + "."
+                            + selectTableJoinParam);
+
+                    if (aggregatedExcludeDeleted) {
+
+                        ret.append(" AND " + joinTable + "." + ObjectProcessing.ATTR_DELETED + " = " + _BIND);
+                        parameters.add(ObjectProcessing.ATTR_DELETED_FALSE);
+                    }
+
+                    ret.append(" " + _ORDER_BY_ASC);
+
+                    Iterator<String> orderIterator = tableColumns.iterator();
+
+                    while (orderIterator.hasNext()) {
+
+                        ret.append(" " + joinTable + "." + orderIterator.next());
+
+                        if (orderIterator.hasNext()) {
+
+                            ret.append(",");
+                        }
+                    }
+
+                    ret.append(") AS " + joinTable + "$" + column + " ");
+                }
+            }
+        }
+
+        return ret.toString();
+    }
+
+    private String buildOneFromMany(Set<String> modColumns) {
+        String out = _GREATEST + "(";
+
+        Iterator<String> columnIterator = modColumns.iterator();
+
+        while (columnIterator.hasNext()) {
+            String name = columnIterator.next();
+            out = out + " " + _MAX + "(" + name + ")";
+            if (!columnIterator.hasNext()) {
+            } else {
+                out = out + " ,";
+            }
+        }
+
+        out = out + ")";
+
+        return out;
+    }
+
+    /**
+     * Builds a query returning the latest 'last_modified' time stamp of each of the tables, in the order
+     * of the tables, as a single row. Each value is looked up by an independent sub query.
+     */
+    public static String buildLatestModificationQuery(List<String> tables) {
+        String statementString = "SELECT";
+
+        Iterator<String> tableIterator = tables.iterator();
+
+        while (tableIterator.hasNext()) {
+            String table = tableIterator.next();
+
+            statementString = statementString + " (SELECT " + _MAX + "(" + table + "."
+                    + ObjectProcessing.ATTR_MODIFIED + ") FROM " + table + ") AS " + table;
+
+            if (tableIterator.hasNext()) {
+
+                statementString = statementString + ",";
+            }
+        }
+
+        LOG.ok("Using the following statement string in the latest modification statement: {0}", statementString);
+        return statementString;
+    }
+
+    /**
+     * Builds a query returning the minimal and the maximal value of the identifier column of the table, as a single
+     * row. Both values are answered by the index of the identifier column.
+     */
+    public static String buildKeyRangeQuery(String table, String identifierColumn) {
+        String column = table + "." + identifierColumn;
+        String statementString = "SELECT " + _MIN + "(" + column + "), " + _MAX + "(" + column + ") FROM " + table;
+
+        LOG.ok("Using the following statement string in the key range statement: {0}", statementString);
+        return statementString;
+    }
+
+    /**
+     * Builds the query reading a page of the change log entries following a sequence number, limited to the
+     * object classes bound as an array. The parameters are the sequence number, the object class names and the
+     * page size.
+     */
+    public static String buildChangeLogQuery(String changeLogTable) {
+        String sequence = changeLogTable + "." + ChangeLogProcessing.ATTR_SEQUENCE;
+
+        String statementString = "SELECT " + sequence + ", " + changeLogTable + "."
+                + ChangeLogProcessing.ATTR_OBJECT_CLASS + ", " + changeLogTable + "."
+                + ChangeLogProcessing.ATTR_OBJECT_ID + ", " + changeLogTable + "."
+                + ChangeLogProcessing.ATTR_CHANGE_TYPE + " FROM " + changeLogTable + " " + _WHERE + " " + sequence
+                + " > " + _BIND + " AND " + changeLogTable + "." + ChangeLogProcessing.ATTR_OBJECT_CLASS + " = "
+                + _ANY + "(" + _BIND + ") " + _ORDER_BY_ASC + " " + sequence + " " + _ASC + " " + _LIMIT + " "
+                + _BIND;
+
+        LOG.ok("Using the following statement string in the change log statement: {0}", statementString);
+        return statementString;
+    }
+
+    public static String buildLatestChangeLogQuery(String changeLogTable) {
+
+        return "SELECT " + _MAX + "(" + changeLogTable + "." + ChangeLogProcessing.ATTR_SEQUENCE + ") FROM "
+                + changeLogTable;
+    }
+
+    public static String buildCurrentWalPositionQuery() {
+
+        return "SELECT pg_current_wal_lsn()";
+    }
+
+    public void setUseFullAlias(boolean useFullAlias) {
+        this.useFullAlias = useFullAlias;
+    }
+
+    public void setOrderByASC(Set<String> orderByASC) {
+        this.orderByASC = orderByASC;
+    }
+
+    public void setAsSyncQuery(boolean asSyncQuery) {
+        this.asSyncQuery = asSyncQuery;
+    }
+
+    public void setInStatement(Map<String, Set<String>> inStatement) {
+        this.inStatement = inStatement;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setPageOffset(Integer pageOffset) {
+        this.pageOffset = pageOffset;
+    }
+
+    /**
+     * Switches the paging of the query to keyset pagination. Pages are delimited by the last seen identifier
+     * (and the last seen latest timestamp in case of sync queries) instead of an offset, so the cost of each page
+     * does not grow with the number of already processed rows.
+     */
+    public void setKeysetPaging(boolean keysetPaging) {
+        this.keysetPaging = keysetPaging;
+    }
+
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
+
+    public void setOrderByIdentifier() {
+        this.orderByASC = Set.of(getIdentifierAttribute());
+    }
+
+    /**
+     * Orders the sync query by the latest time stamp and the identifier, so the changes sharing a time stamp
+     * are always returned in the same order.
+     */
+    public void setOrderBySyncCursor() {
+        this.orderByASC = new LinkedHashSet<>(List.of(ObjectProcessing.ATTR_MODIFIED_LATEST, getIdentifierAttribute()));
+    }
+
+    /**
+     * Aggregates the values of the columns of a joined table into arrays, ordered by the aggregated columns,
+     * instead of joining the table. Aggregation is not used if the filter references the joined table.
+     */
+    public void addAggregatedColumns(String joinTable, List<String> columns) {
+        this.aggregatedColumns.put(joinTable, columns);
+    }
+
+    public void setAggregatedExcludeDeleted(boolean aggregatedExcludeDeleted) {
+        this.aggregatedExcludeDeleted = aggregatedExcludeDeleted;
+    }
+
+    public void setKeyset(Long keysetTimestamp, String keysetIdentifier) {
+        this.keysetTimestamp = keysetTimestamp;
+        this.keysetIdentifier = keysetIdentifier;
+    }
+
+    /**
+     * Switches the query to the watermark based sync query.
+     *
+     * @param watermarkTables the scanned tables, mapped to their column referencing the object identifier
+     * @param watermarks      the watermarks of the scanned tables
+     * @param inclusive      true in case the rows modified at the watermark are scanned as well
+     */
+    public void setWatermarks(Map<String, String> watermarkTables, Map<String, Long> watermarks, boolean inclusive) {
+        this.watermarkTables = watermarkTables;
+        this.watermarks = watermarks;
+        this.watermarksInclusive = inclusive;
+    }
+
+    /**
+     * Switches the query to the sync query of the deleted objects.
+     *
+     * @param since     the time stamp after which the objects were deleted
+     * @param inclusive true in case the objects deleted at the time stamp are read as well
+     */
+    public void setTombstones(Long since, boolean inclusive) {
+        this.tombstonesSince = since;
+        this.tombstonesInclusive = inclusive;
+    }
+
+    public ObjectClass getObjectClass() {
+        return objectClass;
+    }
+
+    public String getKeysetIdentifier() {
+        return keysetIdentifier;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public String getPageCookie() {
+
+        if (operationOptions != null && operationOptions.getPagedResultsCookie() != null
+                && !operationOptions.getPagedResultsCookie().isEmpty()) {
+
+            return operationOptions.getPagedResultsCookie();
+        }
+
+        return null;
+    }
+
+    public QueryBuilder clone() {
+
+        QueryBuilder clone = new QueryBuilder(objectClass, filter, columns, selectTable,
+                joinPair, operationOptions, limit);
+
+        clone.setAsSyncQuery(asSyncQuery);
+        clone.setOrderByASC(orderByASC);
+        clone.setUseFullAlias(useFullAlias);
+
+        return clone;
+    }
+
+    /**
+     * Copies the query including its paging state, e.g. the keyset and the page size. The copy is built and moved
+     * to its next page independently of this query builder, so it can be read by another thread.
+     */
+    public QueryBuilder copy() {
+
+        QueryBuilder copy = clone();
+
+        copy.setInStatement(inStatement != null ? new HashMap<>(inStatement) : null);
+        copy.groupByColumns = new HashSet<>(groupByColumns);
+        copy.aggregatedColumns = new HashMap<>(aggregatedColumns);
+        copy.setAggregatedExcludeDeleted(aggregatedExcludeDeleted);
+        copy.setPageSize(pageSize);
+        copy.setPageOffset(pageOffset);
+        copy.setKeysetPaging(keysetPaging);
+        copy.setKeyset(keysetTimestamp, keysetIdentifier);
+        copy.setWatermarks(watermarkTables, watermarks, watermarksInclusive);
+        copy.setTombstones(tombstonesSince, tombstonesInclusive);
+        copy.setCountTotal(countTotal);
+
+        return copy;
+    }
+
+    /**
+     * Adds the count of all the rows matching the query, regardless of the page limit, as an additional column
+     * of each returned row.
+     */
+    public void setCountTotal(boolean countTotal) {
+        this.countTotal = countTotal;
+    }
+
+    public boolean isCountTotal() {
+        return countTotal;
+    }
+}
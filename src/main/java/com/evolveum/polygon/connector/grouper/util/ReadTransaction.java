@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Scope of a read operation. In case a fetch size is configured, the reads are executed in a read only
+ * transaction, so that the PostgreSQL driver can use a server side cursor and fetch the result set
+ * in chunks of the fetch size instead of loading the whole result set into memory.
+ * <p>
+ * Nested scopes on the same connection reuse the already running transaction, the transaction is committed
+ * by the scope which started it.
+ */
+public class ReadTransaction implements AutoCloseable {
+    private static final Log LOG = Log.getLog(ReadTransaction.class);
+
+    private final Connection connection;
+    private final Integer fetchSize;
+    private final boolean owner;
+
+    public ReadTransaction(Connection connection, Integer fetchSize) throws SQLException {
+        this.connection = connection;
+        this.fetchSize = fetchSize;
+        this.owner = fetchSize != null && connection.getAutoCommit();
+
+        if (owner) {
+
+            LOG.ok("Starting read only transaction with the fetch size: {0}", fetchSize);
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+        }
+    }
+
+    public PreparedStatement prepareStatement(String query) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+
+        if (fetchSize != null) {
+
+            statement.setFetchSize(fetchSize);
+        }
+
+        return statement;
+    }
+
+    public PreparedStatement prepareStatement(String query, List<Object> parameters) throws SQLException {
+        PreparedStatement statement = prepareStatement(query);
+        QueryBuilder.bindParameters(statement, parameters);
+
+        return statement;
+    }
+
+    @Override
+    public void close() throws SQLException {
+
+        if (owner) {
+            try {
+
+                connection.commit();
+            } finally {
+
+                connection.setAutoCommit(true);
+                connection.setReadOnly(false);
+            }
+        }
+    }
+}
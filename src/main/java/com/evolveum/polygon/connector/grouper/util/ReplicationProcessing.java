@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.postgresql.PGConnection;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sync engine consuming the changes of the connector tables from a logical replication slot created with the
+ * "test_decoding" output plugin. The changes of the object, membership and extension attribute tables are mapped
+ * to the changed objects, which are fetched in full and passed on as sync deltas once their transaction committed.
+ * <p>
+ * The log sequence number of the commit is used as the {@link SyncToken} value. The changes of a transaction
+ * preceding its last change are passed on with the token of the previous transaction, so a transaction is
+ * replayed completely in case the handler stops in its middle. The slot is confirmed up to the token the
+ * synchronization started from, i.e. up to the changes already handled by the previous synchronization.
+ * <p>
+ * All the object classes share the one slot, so the strategy synchronizes only the "ALL" object class.
+ * A synchronization of a single object class would confirm the changes of the other object class as well.
+ * <p>
+ * Deletes are recognized only if the deleted row carries the referencing columns, i.e. the tables of the
+ * memberships and extension attributes need the "REPLICA IDENTITY FULL" setting for hard deletes.
+ */
+public class ReplicationProcessing {
+    private static final Log LOG = Log.getLog(ReplicationProcessing.class);
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final long POLL_INTERVAL = 10;
+    private static final int STATUS_INTERVAL = 10;
+    private static final String _BEGIN = "BEGIN";
+    private static final String _COMMIT = "COMMIT";
+    private static final String _DELETE = "DELETE";
+    private static final String _NULL = "null";
+    private static final Pattern CHANGE_PATTERN = Pattern.compile("^table ([^:]+): (INSERT|UPDATE|DELETE): (.*)$",
+            Pattern.DOTALL);
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("(\\w+)\\[[^\\]]+\\]:('(?:[^']|'')*'|\\S+)");
+
+    private final GrouperConfiguration configuration;
+    private final Map<String, ObjectProcessing> processings = new LinkedHashMap<>();
+    private final Map<String, ObjectClass> objectClasses = new HashMap<>();
+
+    public ReplicationProcessing(GrouperConfiguration configuration, Map<ObjectClass, ObjectProcessing> processings) {
+        this.configuration = configuration;
+
+        for (ObjectClass objectClass : processings.keySet()) {
+
+            this.processings.put(objectClass.getObjectClassValue(), processings.get(objectClass));
+            this.objectClasses.put(objectClass.getObjectClassValue(), objectClass);
+        }
+    }
+
+    /**
+     * Reads the changes committed after the token, up to the current end of the write ahead log at the start of
+     * the synchronization. The end is reached by the commit of a transaction ending at or after it, or by
+     * a keepalive message of the server reporting the log decoded past it. The objects are fetched on
+     * the connection, the changes are streamed on the replication connection.
+     */
+    public void sync(SyncToken syncToken, SyncResultsHandler syncResultsHandler, OperationOptions operationOptions,
+                     Connection connection, Connection replicationConnection, boolean isAllObjectClass) {
+
+        LogSequenceNumber startPosition = getPosition(syncToken);
+        LogSequenceNumber endPosition = getCurrentPosition(connection);
+
+        // Nothing was written since the token, the stream would not report any position to stop at
+        if (startPosition.compareTo(endPosition) >= 0) {
+
+            LOG.ok("The replication slot {0} has no changes after the position {1}",
+                    configuration.getReplicationSlotName(), startPosition);
+            return;
+        }
+
+        Integer pageSize = processings.values().iterator().next().getSyncPageSize(operationOptions);
+
+        if (pageSize == null) {
+
+            pageSize = DEFAULT_PAGE_SIZE;
+        }
+
+        LOG.ok("Reading the replication slot {0} from the position {1} up to the position {2}",
+                configuration.getReplicationSlotName(), startPosition, endPosition);
+
+        try (PGReplicationStream stream = replicationConnection.unwrap(PGConnection.class).getReplicationAPI()
+                .replicationStream()
+                .logical()
+                .withSlotName(configuration.getReplicationSlotName())
+                .withStartPosition(startPosition)
+                .withSlotOption("include-xids", false)
+                .withSlotOption("skip-empty-xacts", true)
+                .withStatusInterval(STATUS_INTERVAL, TimeUnit.SECONDS)
+                .start()) {
+
+            // Changes up to the token were handled by the previous synchronization
+            stream.setAppliedLSN(startPosition);
+            stream.setFlushedLSN(startPosition);
+            stream.forceUpdateStatus();
+
+            List<Transaction> transactions = new ArrayList<>();
+            Transaction transaction = null;
+            LogSequenceNumber position = startPosition;
+            // Position of the last commit, including the transactions without any change of the connector tables
+            LogSequenceNumber commitPosition = startPosition;
+            int changeCount = 0;
+
+            while (true) {
+                ByteBuffer message = stream.readPending();
+
+                if (message == null) {
+
+                    // The server waiting for the log sends a keepalive message, which moves the received position
+                    // to the position decoded by the server
+                    if (transaction == null && stream.getLastReceiveLSN().compareTo(endPosition) >= 0) {
+
+                        LOG.ok("The replication stream was decoded up to the position {0}",
+                                stream.getLastReceiveLSN());
+                        break;
+                    }
+
+                    Thread.sleep(POLL_INTERVAL);
+                    continue;
+                }
+
+                String text = decode(message);
+
+                if (text.startsWith(_BEGIN)) {
+
+                    transaction = new Transaction();
+                } else if (text.startsWith(_COMMIT) && transaction != null) {
+
+                    transaction.commitPosition = stream.getLastReceiveLSN();
+                    commitPosition = transaction.commitPosition;
+
+                    if (!transaction.changes.isEmpty()) {
+
+                        transactions.add(transaction);
+                        changeCount += transaction.changes.size();
+                    }
+
+                    boolean finished = transaction.commitPosition.compareTo(endPosition) >= 0;
+                    transaction = null;
+
+                    if (changeCount >= pageSize || finished) {
+
+                        position = handle(transactions, position, syncResultsHandler, operationOptions, connection,
+                                isAllObjectClass);
+
+                        if (position == null) {
+
+                            return;
+                        }
+
+                        // All the transactions up to the last commit were handled
+                        position = commitPosition;
+                        ObjectProcessing.checkpoint(syncResultsHandler, new SyncToken(position.asString()));
+
+                        if (finished) {
+
+                            return;
+                        }
+
+                        transactions.clear();
+                        changeCount = 0;
+                    }
+                } else if (transaction != null) {
+
+                    parseChange(text, transaction);
+                }
+            }
+
+            if (handle(transactions, position, syncResultsHandler, operationOptions, connection,
+                    isAllObjectClass) != null) {
+
+                ObjectProcessing.checkpoint(syncResultsHandler, new SyncToken(commitPosition.asString()));
+            }
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred during the Sync (liveSync) operation, while reading the " +
+                    "replication slot: " + configuration.getReplicationSlotName();
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("Interrupted while reading the replication slot: "
+                    + configuration.getReplicationSlotName());
+        }
+    }
+
+    /**
+     * Returns the current end of the write ahead log, changes committed after it are read by the synchronization
+     * from the token.
+     */
+    public SyncToken getLatestSyncToken(Connection connection) {
+
+        return new SyncToken(getCurrentPosition(connection).asString());
+    }
+
+    /**
+     * Passes on the changes of the transactions. Returns the position of the last handled transaction, null
+     * in case the handler refused a change.
+     */
+    private LogSequenceNumber handle(List<Transaction> transactions, LogSequenceNumber position,
+                                     SyncResultsHandler syncResultsHandler, OperationOptions operationOptions,
+                                     Connection connection, boolean isAllObjectClass) {
+
+        Map<String, Map<String, GrouperObject>> objects = fetchObjects(transactions, operationOptions, connection,
+                isAllObjectClass);
+
+        for (Transaction transaction : transactions) {
+            Iterator<Change> iterator = transaction.changes.values().iterator();
+
+            while (iterator.hasNext()) {
+                Change change = iterator.next();
+                ObjectClass objectClass = objectClasses.get(change.objectClass);
+                GrouperObject grouperObject = change.deleted ? null :
+                        objects.get(change.objectClass).get(change.identifier);
+
+                // Objects removed later on are not found any more, a delete is passed on for them as well
+                if (grouperObject == null) {
+
+                    grouperObject = new GrouperObject();
+                    grouperObject.setIdentifier(change.identifier);
+                    grouperObject.setObjectClass(objectClass);
+                    grouperObject.setDeleted(true);
+                }
+
+                LogSequenceNumber token = iterator.hasNext() ? position : transaction.commitPosition;
+
+                if (!processings.get(change.objectClass).sync(syncResultsHandler, objectClass, grouperObject,
+                        new SyncToken(token.asString()))) {
+
+                    return null;
+                }
+            }
+
+            position = transaction.commitPosition;
+        }
+
+        return position;
+    }
+
+    private Map<String, Map<String, GrouperObject>> fetchObjects(List<Transaction> transactions,
+                                                                 OperationOptions operationOptions,
+                                                                 Connection connection, boolean isAllObjectClass) {
+        Map<String, Map<String, GrouperObject>> changedObjects = new HashMap<>();
+        Map<String, Map<String, GrouperObject>> objects = new HashMap<>();
+
+        for (String objectClassName : processings.keySet()) {
+
+            changedObjects.put(objectClassName, new LinkedHashMap<>());
+            objects.put(objectClassName, new HashMap<>());
+        }
+
+        for (Transaction transaction : transactions) {
+
+            for (Change change : transaction.changes.values()) {
+
+                if (!change.deleted) {
+                    GrouperObject grouperObject = new GrouperObject();
+
+                    grouperObject.setIdentifier(change.identifier);
+                    changedObjects.get(change.objectClass).put(change.identifier, grouperObject);
+                }
+            }
+        }
+
+        for (String objectClassName : changedObjects.keySet()) {
+            Map<String, GrouperObject> changed = changedObjects.get(objectClassName);
+
+            if (!changed.isEmpty()) {
+
+                objects.get(objectClassName).putAll(processings.get(objectClassName).fetchFullObjects(changed,
+                        operationOptions, connection, isAllObjectClass));
+            }
+        }
+
+        return objects;
+    }
+
+    /**
+     * Maps a row change of the "test_decoding" output to the changes of the objects, e.g.
+     * "table public.gr_mp_groups: UPDATE: id_index[bigint]:1 name[character varying]:'x' ...".
+     */
+    private void parseChange(String text, Transaction transaction) {
+        Matcher changeMatcher = CHANGE_PATTERN.matcher(text);
+
+        if (!changeMatcher.matches()) {
+
+            LOG.ok("Ignoring the replication message: {0}", text);
+            return;
+        }
+
+        String table = changeMatcher.group(1);
+        table = table.substring(table.lastIndexOf('.') + 1).replace("\"", "");
+        boolean isDelete = _DELETE.equals(changeMatcher.group(2));
+        Map<String, String> values = new HashMap<>();
+        Matcher columnMatcher = COLUMN_PATTERN.matcher(changeMatcher.group(3));
+
+        while (columnMatcher.find()) {
+            String value = columnMatcher.group(2);
+
+            if (value.startsWith("'")) {
+
+                value = value.substring(1, value.length() - 1).replace("''", "'");
+            } else if (_NULL.equals(value)) {
+
+                value = null;
+            }
+
+            values.put(columnMatcher.group(1), value);
+        }
+
+        for (String objectClassName : processings.keySet()) {
+            ObjectProcessing processing = processings.get(objectClassName);
+            String identifierColumn;
+
+            if (table.equals(processing.getMainTableName())) {
+
+                identifierColumn = processing.getUidAttributeName();
+            } else if (table.equals(processing.getMembershipTableName())
+                    || table.equals(processing.getExtensionAttributeTableName())) {
+
+                identifierColumn = processing.getRelationAttributeName();
+                isDelete = false;
+            } else {
+
+                continue;
+            }
+
+            String identifier = values.get(identifierColumn);
+
+            if (identifier == null) {
+
+                LOG.warn("The change of the table {0} does not contain the column {1}, the change is ignored.",
+                        table, identifierColumn);
+                continue;
+            }
+
+            transaction.add(new Change(objectClassName, identifier, isDelete));
+        }
+    }
+
+    private LogSequenceNumber getPosition(SyncToken syncToken) {
+
+        if (syncToken == null || syncToken.getValue() == null) {
+
+            throw new InvalidAttributeValueException("Missing sync token, a log sequence number is expected.");
+        }
+
+        LogSequenceNumber position = LogSequenceNumber.valueOf(syncToken.getValue().toString());
+
+        if (LogSequenceNumber.INVALID_LSN.equals(position)) {
+
+            throw new InvalidAttributeValueException("Unexpected format of the replication sync token, a log " +
+                    "sequence number is expected: " + syncToken.getValue());
+        }
+
+        return position;
+    }
+
+    private LogSequenceNumber getCurrentPosition(Connection connection) {
+        String query = QueryBuilder.buildCurrentWalPositionQuery();
+
+        try (ReadTransaction transaction = new ReadTransaction(connection, configuration.getFetchSize());
+             PreparedStatement prepareStatement = transaction.prepareStatement(query);
+             ResultSet result = prepareStatement.executeQuery()) {
+
+            if (!result.next()) {
+
+                throw new ConnectorException("The current write ahead log position could not be fetched.");
+            }
+
+            return LogSequenceNumber.valueOf(result.getString(1));
+        } catch (SQLException e) {
+
+            String errMessage = "Exception occurred while fetching the current write ahead log position.";
+
+            throw new ExceptionHandler().evaluateAndHandleException(e, true, false, errMessage);
+        }
+    }
+
+    private static String decode(ByteBuffer message) {
+        int offset = message.arrayOffset();
+
+        return new String(message.array(), offset, message.array().length - offset, StandardCharsets.UTF_8);
+    }
+
+    private static class Transaction {
+        private final Map<String, Change> changes = new LinkedHashMap<>();
+        private LogSequenceNumber commitPosition;
+
+        private void add(Change change) {
+            String key = change.objectClass + "|" + change.identifier;
+
+            // The latest change of the object decides, in the order of its latest change
+            changes.remove(key);
+            changes.put(key, change);
+        }
+    }
+
+    private static class Change {
+        private final String objectClass;
+        private final String identifier;
+        private final boolean deleted;
+
+        private Change(String objectClass, String identifier, boolean deleted) {
+            this.objectClass = objectClass;
+            this.identifier = identifier;
+            this.deleted = deleted;
+        }
+    }
+}
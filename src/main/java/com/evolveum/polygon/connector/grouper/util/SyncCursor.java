@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.util;
+
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Cursor over the changed objects of one object class, ordered by their latest time stamp. In case a page size
+ * is set, the changes are read page by page using keyset paging, so only one page is held in memory.
+ * <p>
+ * The cursor may read ahead in a background thread, see {@link #startReadAhead()}, so more cursors are read at
+ * the same time. The read changes are buffered in a bounded queue.
+ */
+public class SyncCursor {
+    private static final Log LOG = Log.getLog(SyncCursor.class);
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    // Marks the end of the changes in the read ahead queue
+    private static final GrouperObject END = new GrouperObject();
+
+    private final ObjectProcessing processing;
+    private final QueryBuilder query;
+    private final SyncToken syncToken;
+    private final OperationOptions operationOptions;
+    private final Connection connection;
+    private final Integer pageSize;
+    private final boolean isAllObjectClass;
+
+    private Map<String, GrouperObject> page;
+    private Iterator<GrouperObject> pageIterator;
+    private long pageElapsed;
+    private GrouperObject next;
+    private boolean exhausted = false;
+    private boolean pagesExhausted = false;
+    private BlockingQueue<GrouperObject> queue;
+    private Thread readAheadThread;
+    private volatile RuntimeException readAheadFailure;
+    private volatile boolean closed = false;
+
+    public SyncCursor(ObjectProcessing processing, QueryBuilder query, SyncToken syncToken,
+                      OperationOptions operationOptions, Connection connection, Integer pageSize,
+                      boolean isAllObjectClass) {
+        this.processing = processing;
+        this.query = query;
+        this.syncToken = syncToken;
+        this.operationOptions = operationOptions;
+        this.connection = connection;
+        this.pageSize = pageSize;
+        this.isAllObjectClass = isAllObjectClass;
+
+        if (pageSize != null) {
+
+            query.setPageSize(pageSize);
+            query.setKeysetPaging(true);
+        }
+    }
+
+    /**
+     * Returns the next changed object without consuming it, null in case there are no more changes.
+     */
+    public GrouperObject peek() {
+
+        fill();
+        return next;
+    }
+
+    public GrouperObject next() {
+
+        fill();
+        GrouperObject current = next;
+        next = null;
+
+        return current;
+    }
+
+    /**
+     * Passes the changes of the cursors to the handler in the sync order, i.e. ordered by the latest time stamp,
+     * the order of the object class in {@link ObjectProcessing#SYNC_ORDER} and the identifier. Reading of the
+     * changes stops in case the handler refuses a change. Once all the cursors are drained, the watermarks of
+     * the scanned tables are moved to the last handled change, see {@link GrouperSyncToken#drain()}.
+     */
+    public static void merge(List<SyncCursor> cursors, SyncResultsHandler syncResultsHandler) {
+
+        while (true) {
+            SyncCursor first = null;
+
+            for (SyncCursor cursor : cursors) {
+                GrouperObject candidate = cursor.peek();
+
+                if (candidate != null && (first == null || compare(candidate, first.peek()) < 0)) {
+
+                    first = cursor;
+                }
+            }
+
+            if (first == null) {
+
+                drain(cursors, syncResultsHandler);
+                return;
+            }
+
+            GrouperObject grouperObject = first.next();
+
+            if (!first.processing.sync(syncResultsHandler, grouperObject.getObjectClass(), grouperObject)) {
+
+                return;
+            }
+        }
+    }
+
+    private static void drain(List<SyncCursor> cursors, SyncResultsHandler syncResultsHandler) {
+
+        for (SyncCursor cursor : cursors) {
+            GrouperSyncToken token = cursor.processing.getGrouperSyncToken(cursor.syncToken);
+
+            if (token.drain()) {
+
+                ObjectProcessing.checkpoint(syncResultsHandler, token.toSyncToken());
+            }
+        }
+    }
+
+    private static int compare(GrouperObject grouperObject, GrouperObject other) {
+        int result = grouperObject.getLatestTimestamp().compareTo(other.getLatestTimestamp());
+
+        if (result == 0) {
+
+            result = Integer.compare(ObjectProcessing.SYNC_ORDER.indexOf(
+                            grouperObject.getObjectClass().getObjectClassValue()),
+                    ObjectProcessing.SYNC_ORDER.indexOf(other.getObjectClass().getObjectClassValue()));
+        }
+
+        if (result == 0) {
+
+            result = Long.valueOf(grouperObject.getIdentifier()).compareTo(Long.valueOf(other.getIdentifier()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Starts reading the changes in a background thread. The connection of the cursor is used only by the thread
+     * from now on, so it must not be shared with any other cursor. The cursor has to be closed after use.
+     */
+    public void startReadAhead() {
+        queue = new ArrayBlockingQueue<>(pageSize != null ? pageSize : DEFAULT_QUEUE_CAPACITY);
+        readAheadThread = new Thread(this::readAhead, "grouper-sync-cursor-"
+                + processing.getMainTableName());
+        readAheadThread.setDaemon(true);
+        readAheadThread.start();
+    }
+
+    /**
+     * Stops the read ahead thread, in case one was started, and waits until it stops using the connection.
+     */
+    public void close() {
+        closed = true;
+
+        if (readAheadThread == null) {
+
+            return;
+        }
+
+        readAheadThread.interrupt();
+        queue.clear();
+
+        try {
+            readAheadThread.join();
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readAhead() {
+        try {
+            GrouperObject grouperObject;
+
+            while (!closed && (grouperObject = read()) != null) {
+
+                queue.put(grouperObject);
+            }
+        } catch (InterruptedException e) {
+
+            return;
+        } catch (RuntimeException e) {
+
+            readAheadFailure = e;
+        }
+
+        try {
+            queue.put(END);
+        } catch (InterruptedException e) {
+
+            LOG.ok("Read ahead of the changes interrupted");
+        }
+    }
+
+    private void fill() {
+
+        if (next != null || exhausted) {
+
+            return;
+        }
+
+        next = queue != null ? take() : read();
+
+        if (next == null) {
+
+            exhausted = true;
+        }
+    }
+
+    private GrouperObject take() {
+        GrouperObject grouperObject;
+
+        try {
+            grouperObject = queue.take();
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("Interrupted while waiting for the read ahead changes.");
+        }
+
+        if (grouperObject == END) {
+
+            if (readAheadFailure != null) {
+
+                throw readAheadFailure;
+            }
+
+            return null;
+        }
+
+        return grouperObject;
+    }
+
+    private GrouperObject read() {
+
+        while (!pagesExhausted) {
+
+            if (pageIterator != null && pageIterator.hasNext()) {
+
+                return pageIterator.next();
+            }
+
+            if (pageIterator != null && (pageSize == null
+                    || !processing.setNextSyncKeyset(query, page, pageSize, pageElapsed))) {
+
+                pagesExhausted = true;
+                return null;
+            }
+
+            LOG.ok("Fetching the next page of changes, page size: {0}", query.getPageSize());
+            long started = System.nanoTime();
+            page = processing.sync(syncToken, operationOptions, connection, query, isAllObjectClass);
+            pageElapsed = System.nanoTime() - started;
+            pageIterator = page.values().iterator();
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.integration.all;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.GrouperConnection;
+import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.TestSyncResultsHandler;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Needs the change log table and the triggers of samples/sql/change-log.sql.
+ */
+public class ChangeLogSyncTest extends CommonTestClass {
+    private static final Log LOG = Log.getLog(ChangeLogSyncTest.class);
+    private static final String GROUP_ID = "34";
+    private static final String SUBJECT_ID = "87";
+
+    @Test()
+    public void entryCommittedAfterHigherSequenceSkipped() throws SQLException {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectClass.ALL_NAME, true);
+        ObjectClass objectClassALL = new ObjectClass(ObjectClass.ALL_NAME);
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setSyncStrategy(GrouperConfiguration.SYNC_STRATEGY_CHANGE_LOG);
+        grouperConfiguration.validate();
+        grouperConnector.init(grouperConfiguration);
+
+        SyncToken token = grouperConnector.getLatestSyncToken(objectClassALL);
+        GrouperConnection longTransaction = new GrouperConnection(grouperConfiguration);
+        GrouperConnection shortTransaction = new GrouperConnection(grouperConfiguration);
+
+        try {
+            Connection connection = longTransaction.getConnection();
+            Connection otherConnection = shortTransaction.getConnection();
+            connection.setAutoCommit(false);
+            otherConnection.setAutoCommit(true);
+
+            // The entry of the group gets the lower sequence number, but is committed last
+            touch(connection, "_mp_groups", "id_index", GROUP_ID);
+            touch(otherConnection, "_mp_subjects", "subject_id_index", SUBJECT_ID);
+
+            TestSyncResultsHandler handler = getSyncResultHandler();
+            grouperConnector.sync(objectClassALL, token, handler, options);
+
+            Assert.assertTrue(isSynchronized(handler, ObjectProcessing.SUBJECT_NAME, SUBJECT_ID));
+            Assert.assertFalse(isSynchronized(handler, ObjectProcessing.GROUP_NAME, GROUP_ID));
+
+            SyncToken lastToken = handler.getResult().get(handler.getResult().size() - 1).getToken();
+            connection.commit();
+
+            TestSyncResultsHandler laterHandler = getSyncResultHandler();
+            grouperConnector.sync(objectClassALL, lastToken, laterHandler, options);
+
+            // The token follows the sequence number of the group entry already
+            Assert.assertFalse(isSynchronized(laterHandler, ObjectProcessing.GROUP_NAME, GROUP_ID));
+        } finally {
+
+            longTransaction.dispose();
+            shortTransaction.dispose();
+        }
+    }
+
+    private void touch(Connection connection, String table, String identifierColumn, String identifier)
+            throws SQLException {
+
+        try (Statement statement = connection.createStatement()) {
+
+            statement.execute("UPDATE " + grouperConfiguration.getSchema() + "." + grouperConfiguration.getTablePrefix()
+                    + table + " SET last_modified = last_modified WHERE " + identifierColumn + " = " + identifier);
+        }
+    }
+
+    private boolean isSynchronized(TestSyncResultsHandler handler, String objectClassName, String identifier) {
+
+        for (SyncDelta result : handler.getResult()) {
+
+            LOG.info("### START ### Attribute set for the object {0}", result);
+            LOG.info("### END ###");
+
+            if (result.getObjectClass().is(objectClassName) && identifier.equals(result.getUid().getUidValue())) {
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
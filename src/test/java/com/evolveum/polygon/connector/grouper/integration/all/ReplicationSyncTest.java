@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.integration.all;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.GrouperConnection;
+import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.TestSyncResultsHandler;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Needs a PostgreSQL server with "wal_level = logical" and a connector user with the REPLICATION privilege.
+ */
+public class ReplicationSyncTest extends CommonTestClass {
+    private static final Log LOG = Log.getLog(ReplicationSyncTest.class);
+    private static final String SLOT_NAME = "grouper_connector_test";
+    private static final String GROUP_ID = "34";
+
+    @Test()
+    public void syncTestReplication() throws SQLException {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectClass.ALL_NAME, true);
+        ObjectClass objectClassALL = new ObjectClass(ObjectClass.ALL_NAME);
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setSyncStrategy(GrouperConfiguration.SYNC_STRATEGY_REPLICATION);
+        grouperConfiguration.setReplicationSlotName(SLOT_NAME);
+        grouperConfiguration.validate();
+
+        createSlot();
+
+        try {
+            grouperConnector.init(grouperConfiguration);
+
+            SyncToken token = grouperConnector.getLatestSyncToken(objectClassALL);
+            touchGroup();
+
+            TestSyncResultsHandler handler = getSyncResultHandler();
+            grouperConnector.sync(objectClassALL, token, handler, options);
+
+            SyncToken lastToken = null;
+            boolean found = false;
+
+            for (SyncDelta result : handler.getResult()) {
+
+                LOG.info("### START ### Attribute set for the object {0}", result);
+                LOG.info("### END ###");
+
+                if (result.getObjectClass().is(ObjectProcessing.GROUP_NAME)
+                        && GROUP_ID.equals(result.getUid().getUidValue())) {
+
+                    Assert.assertEquals(result.getDeltaType(), SyncDeltaType.CREATE_OR_UPDATE);
+                    found = true;
+                }
+
+                lastToken = result.getToken();
+            }
+
+            Assert.assertTrue(found, "The change of the group " + GROUP_ID + " was not synchronized");
+
+            // The changes up to the last token are confirmed in the slot, they are not passed on again
+            TestSyncResultsHandler laterHandler = getSyncResultHandler();
+            grouperConnector.sync(objectClassALL, lastToken, laterHandler, options);
+
+            for (SyncDelta result : laterHandler.getResult()) {
+
+                Assert.assertFalse(result.getObjectClass().is(ObjectProcessing.GROUP_NAME)
+                        && GROUP_ID.equals(result.getUid().getUidValue()), "The change of the group " + GROUP_ID
+                        + " was synchronized again");
+            }
+        } finally {
+
+            dropSlot();
+        }
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void syncTestReplicationSingleObjectClass() {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setSyncStrategy(GrouperConfiguration.SYNC_STRATEGY_REPLICATION);
+        grouperConfiguration.setReplicationSlotName(SLOT_NAME);
+        grouperConfiguration.validate();
+        grouperConnector.init(grouperConfiguration);
+
+        // The slot is shared by the object classes, a single one would confirm the changes of the other one
+        grouperConnector.sync(new ObjectClass(ObjectProcessing.GROUP_NAME), null, getSyncResultHandler(), options);
+    }
+
+    private void touchGroup() throws SQLException {
+        String table = grouperConfiguration.getSchema() + "." + grouperConfiguration.getTablePrefix() + "_mp_groups";
+
+        execute("UPDATE " + table + " SET last_modified = last_modified WHERE id_index = " + GROUP_ID);
+    }
+
+    private void createSlot() throws SQLException {
+
+        execute("SELECT pg_create_logical_replication_slot('" + SLOT_NAME + "', 'test_decoding') WHERE NOT EXISTS "
+                + "(SELECT 1 FROM pg_replication_slots WHERE slot_name = '" + SLOT_NAME + "')");
+    }
+
+    private void dropSlot() throws SQLException {
+
+        execute("SELECT pg_drop_replication_slot(slot_name) FROM pg_replication_slots WHERE slot_name = '"
+                + SLOT_NAME + "' AND NOT active");
+    }
+
+    private void execute(String query) throws SQLException {
+        GrouperConnection grouperConnection = new GrouperConnection(grouperConfiguration);
+
+        try {
+            Connection connection = grouperConnection.getConnection();
+
+            try (PreparedStatement prepareStatement = connection.prepareStatement(query)) {
+
+                if (prepareStatement.execute()) {
+
+                    try (ResultSet result = prepareStatement.getResultSet()) {
+
+                        LOG.ok("Executed {0}, returned rows: {1}", query, result.next());
+                    }
+                }
+            }
+
+            if (!connection.getAutoCommit()) {
+
+                connection.commit();
+            }
+        } finally {
+
+            grouperConnection.dispose();
+        }
+    }
+}
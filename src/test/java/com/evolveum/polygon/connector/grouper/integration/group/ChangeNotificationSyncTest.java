@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.integration.group;
+
+import com.evolveum.polygon.connector.grouper.GrouperChangeListener;
+import com.evolveum.polygon.connector.grouper.GrouperConnectionPool;
+import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
+import com.evolveum.polygon.connector.grouper.util.GroupProcessing;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.TestSyncResultsHandler;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Needs the notification triggers of samples/sql/change-notification.sql on the channel "grouper_changes".
+ */
+public class ChangeNotificationSyncTest extends CommonTestClass {
+    private static final Log LOG = Log.getLog(ChangeNotificationSyncTest.class);
+    private static final String CHANNEL = "grouper_changes";
+    private static final int POOL_SIZE = 2;
+    // Time given to the listener to start listening on the channel
+    private static final long LISTEN_TIMEOUT = 10000;
+
+    @Test()
+    public void syncSkippedWithoutConnection() throws InterruptedException {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
+        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setChangeNotificationChannel(CHANNEL);
+        grouperConfiguration.setEnableSnapshotReads(true);
+        grouperConfiguration.setConnectionPoolMaxSize(POOL_SIZE);
+        grouperConfiguration.setConnectionAcquireTimeout(1);
+        grouperConfiguration.validate();
+        grouperConnector.init(grouperConfiguration);
+
+        GrouperConnectionPool pool = GrouperConnectionPool.getPool(grouperConfiguration);
+        List<Connection> borrowed = new ArrayList<>();
+
+        try {
+            GrouperChangeListener listener = pool.getChangeListener(CHANNEL);
+            List<String> tables = new GroupProcessing(grouperConfiguration).getSyncTables();
+            SyncToken token = grouperConnector.getLatestSyncToken(objectClassGroup);
+            long started = System.currentTimeMillis();
+
+            // A synchronization is recorded only once the listener listens on the channel
+            while (!listener.isSynchronized(ObjectProcessing.GROUP_NAME, token, tables)) {
+
+                Assert.assertTrue(System.currentTimeMillis() - started < LISTEN_TIMEOUT,
+                        "The synchronization from the token " + token + " was not recorded by the listener");
+
+                grouperConnector.sync(objectClassGroup, token, getSyncResultHandler(), options);
+                Thread.sleep(100);
+            }
+
+            // Any statement of the skipped synchronization would wait for a connection and fail
+            for (int i = 0; i < POOL_SIZE; i++) {
+
+                borrowed.add(pool.borrow());
+            }
+
+            TestSyncResultsHandler handler = getSyncResultHandler();
+            grouperConnector.sync(objectClassGroup, token, handler, options);
+
+            LOG.ok("Synchronization from the token {0} skipped", token);
+            Assert.assertTrue(handler.getResult().isEmpty());
+        } finally {
+
+            for (Connection connection : borrowed) {
+
+                pool.release(connection);
+            }
+
+            GrouperConnectionPool.releasePool(pool);
+        }
+    }
+}
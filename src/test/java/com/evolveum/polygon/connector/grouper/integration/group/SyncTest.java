@@ -1,91 +1,165 @@
-/*
- * Copyright (c) 2010-2023 Evolveum
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-
-package com.evolveum.polygon.connector.grouper.integration.group;
-
-import com.evolveum.polygon.connector.grouper.util.GroupProcessing;
-import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
-import org.identityconnectors.common.logging.Log;
-import org.identityconnectors.framework.common.objects.ObjectClass;
-import org.identityconnectors.framework.common.objects.OperationOptions;
-import org.identityconnectors.framework.common.objects.SyncDelta;
-import org.identityconnectors.framework.common.objects.SyncToken;
-import org.testng.Assert;
-import org.testng.annotations.Test;
-import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
-import com.evolveum.polygon.connector.grouper.util.TestSyncResultsHandler;
-
-public class SyncTest extends CommonTestClass {
-    private static final Log LOG = Log.getLog(SyncTest.class);
-
-    @Test()
-    public void syncTest() {
-
-        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
-        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
-        grouperConfiguration = initializeAndFetchGrouperConfiguration();
-        grouperConnector.init(grouperConfiguration);
-        TestSyncResultsHandler handler = getSyncResultHandler();
-
-        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
-                handler, options);
-
-        for (SyncDelta result : handler.getResult()) {
-
-            LOG.info("### START ### Attribute set for the object {0}", result);
-            LOG.info("### END ###");
-        }
-
-    }
-
-    @Test()
-    public void syncTestMaxPaging() {
-
-
-        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
-        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
-        grouperConfiguration = initializeAndFetchGrouperConfiguration();
-        grouperConfiguration.setEnableIdBasedPaging(true);
-        grouperConfiguration.setMaxPageSize(2);
-        grouperConnector.init(grouperConfiguration);
-
-        TestSyncResultsHandler handler = getSyncResultHandler();
-
-
-        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
-                handler, options);
-
-        for (SyncDelta result : handler.getResult()) {
-
-            LOG.info("### START ### Attribute set for the object {0}", result);
-            LOG.info("### END ###");
-        }
-
-    }
-
-    @Test()
-    public void latestSyncTokenTest() {
-
-        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
-        grouperConnector.init(grouperConfiguration);
-
-        SyncToken token = grouperConnector.getLatestSyncToken(objectClassGroup);
-
-        LOG.ok("Sync token value : {0}", token);
-
-        Assert.assertNotNull(token);
-    }
-}
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.integration.group;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.util.GroupProcessing;
+import com.evolveum.polygon.connector.grouper.util.GrouperSyncToken;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
+import com.evolveum.polygon.connector.grouper.util.TestSyncResultsHandler;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class SyncTest extends CommonTestClass {
+    private static final Log LOG = Log.getLog(SyncTest.class);
+
+    @Test()
+    public void syncTest() {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
+        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConnector.init(grouperConfiguration);
+        TestSyncResultsHandler handler = getSyncResultHandler();
+
+        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
+                handler, options);
+
+        for (SyncDelta result : handler.getResult()) {
+
+            LOG.info("### START ### Attribute set for the object {0}", result);
+            LOG.info("### END ###");
+        }
+
+    }
+
+    @Test()
+    public void syncTestMaxPaging() {
+
+
+        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
+        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setEnableIdBasedPaging(true);
+        grouperConfiguration.setMaxPageSize(2);
+        grouperConnector.init(grouperConfiguration);
+
+        TestSyncResultsHandler handler = getSyncResultHandler();
+
+
+        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
+                handler, options);
+
+        for (SyncDelta result : handler.getResult()) {
+
+            LOG.info("### START ### Attribute set for the object {0}", result);
+            LOG.info("### END ###");
+        }
+
+    }
+
+    @Test()
+    public void syncTestWatermark() {
+
+        OperationOptions options = getDefaultOperationOptions(ObjectProcessing.GROUP_NAME, true);
+        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConnector.init(grouperConfiguration);
+        TestSyncResultsHandler expectedHandler = getSyncResultHandler();
+
+        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
+                expectedHandler, options);
+
+        grouperConfiguration = initializeAndFetchGrouperConfiguration();
+        grouperConfiguration.setSyncStrategy(GrouperConfiguration.SYNC_STRATEGY_WATERMARK);
+        grouperConnector.init(grouperConfiguration);
+        TestSyncResultsHandler handler = getSyncResultHandler();
+
+        grouperConnector.sync(objectClassGroup, new SyncToken(1684824672269L),
+                handler, options);
+
+        Assert.assertFalse(handler.getResult().isEmpty());
+        Assert.assertEquals(uids(handler), uids(expectedHandler));
+
+        String groupTable = grouperConfiguration.getTablePrefix() + "_mp_groups";
+        Set<String> uids = new HashSet<>();
+
+        for (SyncDelta result : handler.getResult()) {
+
+            LOG.info("### START ### Attribute set for the object {0}", result);
+            LOG.info("### END ###");
+
+            String uid = result.getUid().getUidValue();
+
+            Assert.assertTrue(uids.add(uid), "Duplicate delta of the object " + uid);
+            Assert.assertTrue(result.getDeltaType() == SyncDeltaType.CREATE_OR_UPDATE
+                    || result.getDeltaType() == SyncDeltaType.DELETE);
+
+            Object tokenValue = result.getToken().getValue();
+            Assert.assertTrue(tokenValue instanceof String);
+
+            GrouperSyncToken token = GrouperSyncToken.parse(result.getToken());
+            Assert.assertTrue(token.hasCursor());
+            Assert.assertEquals(token.getCursorObjectClass(), ObjectProcessing.GROUP_NAME);
+            Assert.assertEquals(token.getCursorIdentifier(), uid);
+            Assert.assertTrue(((String) tokenValue).contains(groupTable + "="));
+            Assert.assertEquals(token.toSyncToken().getValue(), tokenValue);
+        }
+
+        // Resuming from the last token does not repeat any of the handled changes
+        SyncToken lastToken = handler.getResult().get(handler.getResult().size() - 1).getToken();
+        TestSyncResultsHandler resumedHandler = getSyncResultHandler();
+
+        grouperConnector.sync(objectClassGroup, lastToken, resumedHandler, options);
+
+        Assert.assertTrue(resumedHandler.getResult().isEmpty());
+    }
+
+    @Test()
+    public void latestSyncTokenTest() {
+
+        ObjectClass objectClassGroup = GroupProcessing.O_CLASS;
+        grouperConnector.init(grouperConfiguration);
+
+        SyncToken token = grouperConnector.getLatestSyncToken(objectClassGroup);
+
+        LOG.ok("Sync token value : {0}", token);
+
+        Assert.assertNotNull(token);
+    }
+
+    private Set<String> uids(TestSyncResultsHandler handler) {
+        Set<String> uids = new HashSet<>();
+
+        for (SyncDelta result : handler.getResult()) {
+
+            uids.add(result.getUid().getUidValue());
+        }
+
+        return uids;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.util.AdaptivePager;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class AdaptivePagerTests {
+    private static final long MILLISECOND = 1_000_000L;
+
+    @Test()
+    public void disabledWithoutTargetLatency() {
+        AdaptivePager pager = pager(null, 10);
+
+        assertFalse(pager.isEnabled());
+        assertEquals(100, pager.nextPageSize(100, 1000, 5000 * MILLISECOND, 100, 100));
+    }
+
+    @Test()
+    public void emptyPageKeepsSize() {
+        AdaptivePager pager = pager(100, 10);
+
+        assertTrue(pager.isEnabled());
+        assertEquals(100, pager.nextPageSize(100, 1000, 5000 * MILLISECOND, 0, 0));
+    }
+
+    @Test()
+    public void targetLatencyKeepsSize() {
+
+        assertEquals(100, pager(100, 10).nextPageSize(100, 1000, 100 * MILLISECOND, 100, 100));
+    }
+
+    @Test()
+    public void growsAtMostTwice() {
+        AdaptivePager pager = pager(100, 10);
+
+        assertEquals(150, pager.nextPageSize(100, 1000, 66 * MILLISECOND + MILLISECOND / 2, 100, 100));
+        assertEquals(200, pager.nextPageSize(100, 1000, 10 * MILLISECOND, 100, 100));
+        // A page read in no time is measured as one millisecond
+        assertEquals(200, pager.nextPageSize(100, 1000, 0, 100, 100));
+    }
+
+    @Test()
+    public void shrinksAtMostByHalf() {
+        AdaptivePager pager = pager(100, 10);
+
+        assertEquals(80, pager.nextPageSize(100, 1000, 125 * MILLISECOND, 100, 100));
+        assertEquals(50, pager.nextPageSize(100, 1000, 5000 * MILLISECOND, 100, 100));
+    }
+
+    @Test()
+    public void limitedByMaxPageSize() {
+
+        assertEquals(150, pager(100, 10).nextPageSize(100, 150, 10 * MILLISECOND, 100, 100));
+    }
+
+    @Test()
+    public void limitedByMinPageSize() {
+        AdaptivePager pager = pager(100, 15);
+
+        assertEquals(15, pager.nextPageSize(20, 1000, 5000 * MILLISECOND, 20, 20));
+        // The default minimal page size
+        assertEquals(10, pager(100, null).nextPageSize(12, 1000, 5000 * MILLISECOND, 12, 12));
+    }
+
+    @Test()
+    public void limitedByRowsPerObject() {
+        AdaptivePager pager = pager(100, 10);
+
+        // 40 rows per object, the page holds at least two objects
+        assertEquals(80, pager.nextPageSize(100, 1000, 5000 * MILLISECOND, 400, 10));
+        // Rounded up, 10 rows of 3 objects
+        assertEquals(7, pager(100, 1).nextPageSize(10, 1000, 5000 * MILLISECOND, 10, 3));
+        // The configured page size is never exceeded
+        assertEquals(60, pager.nextPageSize(100, 60, 5000 * MILLISECOND, 400, 10));
+    }
+
+    private AdaptivePager pager(Integer targetPageLatency, Integer minPageSize) {
+        GrouperConfiguration configuration = new GrouperConfiguration();
+
+        configuration.setTargetPageLatency(targetPageLatency);
+
+        if (minPageSize != null) {
+
+            configuration.setMinPageSize(minPageSize);
+        }
+
+        return new AdaptivePager(configuration);
+    }
+}
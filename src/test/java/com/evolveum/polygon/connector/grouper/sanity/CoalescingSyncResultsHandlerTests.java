@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.util.CoalescingSyncResultsHandler;
+import com.evolveum.polygon.connector.grouper.util.GroupProcessing;
+import org.identityconnectors.framework.common.objects.SyncDelta;
+import org.identityconnectors.framework.common.objects.SyncDeltaBuilder;
+import org.identityconnectors.framework.common.objects.SyncDeltaType;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.identityconnectors.framework.spi.SyncTokenResultsHandler;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class CoalescingSyncResultsHandlerTests {
+
+    @Test()
+    public void duplicateUidInWindow() {
+        StubHandler stub = new StubHandler(Integer.MAX_VALUE);
+        CoalescingSyncResultsHandler handler = new CoalescingSyncResultsHandler(stub, 3);
+
+        assertTrue(handler.handle(delta("1", 1)));
+        assertTrue(handler.handle(delta("2", 2)));
+        assertTrue(handler.handle(delta("1", 3)));
+        assertTrue(stub.passed.isEmpty());
+
+        assertTrue(handler.flush());
+
+        // The repeated change replaces the previous one and moves to the end of the window
+        assertEquals(List.of("2@2", "1@3"), stub.passed);
+    }
+
+    @Test()
+    public void evictionOrder() {
+        StubHandler stub = new StubHandler(Integer.MAX_VALUE);
+        CoalescingSyncResultsHandler handler = new CoalescingSyncResultsHandler(stub, 2);
+
+        handler.handle(delta("1", 1));
+        handler.handle(delta("2", 2));
+        handler.handle(delta("1", 3));
+        handler.handle(delta("3", 4));
+
+        assertEquals(List.of("2@2"), stub.passed);
+
+        handler.handle(delta("4", 5));
+
+        assertEquals(List.of("2@2", "1@3"), stub.passed);
+
+        handler.flush();
+
+        assertEquals(List.of("2@2", "1@3", "3@4", "4@5"), stub.passed);
+    }
+
+    @Test()
+    public void handlerRefusesChange() {
+        StubHandler stub = new StubHandler(1);
+        CoalescingSyncResultsHandler handler = new CoalescingSyncResultsHandler(stub, 1);
+
+        assertTrue(handler.handle(delta("1", 1)));
+        assertTrue(handler.handle(delta("2", 2)));
+        // The second passed on change is refused
+        assertFalse(handler.handle(delta("3", 3)));
+        assertFalse(handler.handle(delta("4", 4)));
+
+        handler.handleResult(new SyncToken(5));
+
+        assertFalse(handler.flush());
+        assertEquals(List.of("1@1", "2@2"), stub.passed);
+        assertTrue(stub.checkpoints.isEmpty());
+    }
+
+    @Test()
+    public void flushOnCompletion() {
+        StubHandler stub = new StubHandler(Integer.MAX_VALUE);
+        CoalescingSyncResultsHandler handler = new CoalescingSyncResultsHandler(stub, 10);
+
+        // Nothing is held, the checkpoint is passed on right away
+        handler.handleResult(new SyncToken(0));
+        assertEquals(List.of(0), stub.checkpoints);
+
+        handler.handle(delta("1", 1));
+        handler.handle(delta("2", 2));
+        handler.handleResult(new SyncToken(2));
+
+        // The checkpoint is held until the changes preceding it are passed on
+        assertTrue(stub.passed.isEmpty());
+        assertEquals(List.of(0), stub.checkpoints);
+
+        assertTrue(handler.flush());
+
+        assertEquals(List.of("1@1", "2@2"), stub.passed);
+        assertEquals(List.of(0, 2), stub.checkpoints);
+    }
+
+    private SyncDelta delta(String uid, int token) {
+
+        return new SyncDeltaBuilder()
+                .setDeltaType(SyncDeltaType.DELETE)
+                .setObjectClass(GroupProcessing.O_CLASS)
+                .setUid(new Uid(uid))
+                .setToken(new SyncToken(token))
+                .build();
+    }
+
+    /**
+     * Handler recording the passed on changes and checkpoints, refusing the changes over the limit.
+     */
+    private static class StubHandler implements SyncTokenResultsHandler {
+        private final List<String> passed = new ArrayList<>();
+        private final List<Object> checkpoints = new ArrayList<>();
+        private final int limit;
+
+        private StubHandler(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean handle(SyncDelta syncDelta) {
+
+            if (passed.size() > limit) {
+
+                return false;
+            }
+
+            passed.add(syncDelta.getUid().getUidValue() + "@" + syncDelta.getToken().getValue());
+            return passed.size() <= limit;
+        }
+
+        @Override
+        public void handleResult(SyncToken syncToken) {
+
+            checkpoints.add(syncToken.getValue());
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.fail;
 
 public class ConfigurationTests extends CommonTestClass {
@@ -51,6 +52,52 @@ public class ConfigurationTests extends CommonTestClass {
         Assert.fail();
     }
 
+    @Test(expectedExceptions = ConfigurationException.class)
+    public void initializeNotCorrectConfigurationPoolSize() {
+
+        grouperConfiguration.setConnectionPoolMinSize(5);
+        grouperConfiguration.setConnectionPoolMaxSize(2);
+        grouperConfiguration.validate();
+
+        Assert.fail();
+    }
+
+    @Test
+    public void initializeNotCorrectConfigurationParallelism() {
+
+        grouperConfiguration.setConnectionPoolMaxSize(5);
+        grouperConfiguration.setReconciliationParallelism(4);
+        assertPoolTooSmall("reconciliationParallelism", 6);
+
+        grouperConfiguration.setReconciliationParallelism(8);
+        assertPoolTooSmall("reconciliationParallelism", 10);
+
+        grouperConfiguration.setReconciliationParallelism(3);
+        assertValid("reconciliationParallelism");
+    }
+
+    @Test
+    public void initializeNotCorrectConfigurationParallelSync() {
+
+        grouperConfiguration.setConnectionPoolMaxSize(3);
+        grouperConfiguration.setEnableParallelSync(true);
+        assertPoolTooSmall("enableParallelSync", 4);
+
+        grouperConfiguration.setConnectionPoolMaxSize(4);
+        assertValid("enableParallelSync");
+    }
+
+    @Test
+    public void initializeNotCorrectConfigurationPagePrefetch() {
+
+        grouperConfiguration.setConnectionPoolMaxSize(2);
+        grouperConfiguration.setEnablePagePrefetch(true);
+        assertPoolTooSmall("enablePagePrefetch", 3);
+
+        grouperConfiguration.setConnectionPoolMaxSize(3);
+        assertValid("enablePagePrefetch");
+    }
+
     @Test
     public void testGetSetTheProperties() {
         GrouperConfiguration testConfiguration = new GrouperConfiguration();
@@ -83,6 +130,43 @@ public class ConfigurationTests extends CommonTestClass {
 
         testConfiguration.setEnableIdBasedPaging(true);
         assertEquals(Boolean.TRUE, testConfiguration.getEnableIdBasedPaging());
+
+        testConfiguration.setConnectionPoolMinSize(2);
+        assertEquals(Integer.valueOf(2), testConfiguration.getConnectionPoolMinSize());
+        testConfiguration.setConnectionPoolMaxSize(20);
+        assertEquals(Integer.valueOf(20), testConfiguration.getConnectionPoolMaxSize());
+        testConfiguration.setConnectionIdleTimeout(60);
+        assertEquals(Integer.valueOf(60), testConfiguration.getConnectionIdleTimeout());
+        testConfiguration.setConnectionMaxLifetime(600);
+        assertEquals(Integer.valueOf(600), testConfiguration.getConnectionMaxLifetime());
+        testConfiguration.setConnectionAcquireTimeout(5);
+        assertEquals(Integer.valueOf(5), testConfiguration.getConnectionAcquireTimeout());
+        testConfiguration.setFetchSize(500);
+        assertEquals(Integer.valueOf(500), testConfiguration.getFetchSize());
+        testConfiguration.setEnableRelationAggregation(true);
+        assertEquals(Boolean.TRUE, testConfiguration.getEnableRelationAggregation());
+        testConfiguration.setEnableRowOrderEmission(true);
+        assertEquals(Boolean.TRUE, testConfiguration.getEnableRowOrderEmission());
+        testConfiguration.setSyncStrategy(GrouperConfiguration.SYNC_STRATEGY_WATERMARK);
+        assertEquals(GrouperConfiguration.SYNC_STRATEGY_WATERMARK, testConfiguration.getSyncStrategy());
+        testConfiguration.setChangeNotificationChannel("grouper_changes");
+        assertEquals("grouper_changes", testConfiguration.getChangeNotificationChannel());
+        testConfiguration.setReplicationSlotName("grouper_slot");
+        assertEquals("grouper_slot", testConfiguration.getReplicationSlotName());
+        testConfiguration.setEnableParallelSync(true);
+        assertEquals(Boolean.TRUE, testConfiguration.getEnableParallelSync());
+        testConfiguration.setSyncCoalescingWindow(500);
+        assertEquals(Integer.valueOf(500), testConfiguration.getSyncCoalescingWindow());
+        testConfiguration.setTargetPageLatency(200);
+        assertEquals(Integer.valueOf(200), testConfiguration.getTargetPageLatency());
+        testConfiguration.setMinPageSize(50);
+        assertEquals(Integer.valueOf(50), testConfiguration.getMinPageSize());
+        testConfiguration.setReconciliationParallelism(4);
+        assertEquals(Integer.valueOf(4), testConfiguration.getReconciliationParallelism());
+        testConfiguration.setEnableSnapshotReads(true);
+        assertEquals(Boolean.TRUE, testConfiguration.getEnableSnapshotReads());
+        testConfiguration.setEnablePagePrefetch(true);
+        assertEquals(Boolean.TRUE, testConfiguration.getEnablePagePrefetch());
     }
 
     @Test
@@ -92,5 +176,47 @@ public class ConfigurationTests extends CommonTestClass {
         assertEquals(Integer.valueOf(10), testConfiguration.getConnectionValidTimeout());
         assertEquals(Boolean.TRUE, testConfiguration.getExcludeDeletedObjects());
         assertEquals(Boolean.FALSE, testConfiguration.getEnableIdBasedPaging());
+        assertEquals(Integer.valueOf(0), testConfiguration.getConnectionPoolMinSize());
+        assertEquals(Integer.valueOf(10), testConfiguration.getConnectionPoolMaxSize());
+        assertEquals(Integer.valueOf(300), testConfiguration.getConnectionIdleTimeout());
+        assertEquals(Integer.valueOf(1800), testConfiguration.getConnectionMaxLifetime());
+        assertEquals(Integer.valueOf(30), testConfiguration.getConnectionAcquireTimeout());
+        assertEquals(Boolean.FALSE, testConfiguration.getEnableRelationAggregation());
+        assertEquals(Boolean.FALSE, testConfiguration.getEnableRowOrderEmission());
+        assertEquals(GrouperConfiguration.SYNC_STRATEGY_TIMESTAMP, testConfiguration.getSyncStrategy());
+        assertNull(testConfiguration.getChangeNotificationChannel());
+        assertNull(testConfiguration.getReplicationSlotName());
+        assertEquals(Boolean.FALSE, testConfiguration.getEnableParallelSync());
+        assertNull(testConfiguration.getSyncCoalescingWindow());
+        assertNull(testConfiguration.getTargetPageLatency());
+        assertEquals(Integer.valueOf(10), testConfiguration.getMinPageSize());
+        assertNull(testConfiguration.getReconciliationParallelism());
+        assertEquals(Boolean.FALSE, testConfiguration.getEnableSnapshotReads());
+        assertEquals(Boolean.FALSE, testConfiguration.getEnablePagePrefetch());
+    }
+
+    private void assertPoolTooSmall(String parameter, int requiredPoolSize) {
+
+        try {
+            grouperConfiguration.validate();
+        } catch (ConfigurationException e) {
+
+            Assert.assertTrue(e.getMessage().contains(parameter + " needs a connectionPoolMaxSize of at least "
+                    + requiredPoolSize + ", the connectionPoolMaxSize is "
+                    + grouperConfiguration.getConnectionPoolMaxSize()), e.getMessage());
+            return;
+        }
+
+        fail("The parameter " + parameter + " was not rejected");
+    }
+
+    private void assertValid(String parameter) {
+
+        try {
+            grouperConfiguration.validate();
+        } catch (ConfigurationException e) {
+
+            Assert.assertFalse(e.getMessage().contains(parameter), e.getMessage());
+        }
     }
 }
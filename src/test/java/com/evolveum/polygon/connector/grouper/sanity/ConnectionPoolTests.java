@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.GrouperConnectionPool;
+import org.identityconnectors.common.security.GuardedString;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.fail;
+
+public class ConnectionPoolTests {
+
+    @Test()
+    public void poolSharedUntilLastReferenceReleased() {
+        GrouperConfiguration configuration = configuration("secret");
+
+        GrouperConnectionPool first = GrouperConnectionPool.getPool(configuration);
+        GrouperConnectionPool second = GrouperConnectionPool.getPool(configuration("secret"));
+
+        assertSame(first, second);
+
+        GrouperConnectionPool.releasePool(first);
+        GrouperConnectionPool third = GrouperConnectionPool.getPool(configuration);
+
+        assertSame(first, third);
+
+        GrouperConnectionPool.releasePool(second);
+        GrouperConnectionPool.releasePool(third);
+
+        assertClosed(first);
+
+        GrouperConnectionPool reopened = GrouperConnectionPool.getPool(configuration);
+
+        assertNotSame(first, reopened);
+        GrouperConnectionPool.releasePool(reopened);
+    }
+
+    @Test()
+    public void poolOfChangedPasswordReleased() {
+        GrouperConnectionPool old = GrouperConnectionPool.getPool(configuration("old"));
+        GrouperConnectionPool changed = GrouperConnectionPool.getPool(configuration("changed"));
+
+        assertNotSame(old, changed);
+
+        GrouperConnectionPool.releasePool(old);
+
+        assertClosed(old);
+        GrouperConnectionPool.releasePool(changed);
+    }
+
+    private void assertClosed(GrouperConnectionPool pool) {
+
+        try {
+            pool.getChangeListener("grouper_changes");
+        } catch (ConnectorException e) {
+
+            return;
+        }
+
+        fail("The connection pool was not closed");
+    }
+
+    private GrouperConfiguration configuration(String password) {
+        GrouperConfiguration configuration = new GrouperConfiguration();
+
+        configuration.setHost("127.0.0.1");
+        configuration.setPort("5432");
+        configuration.setDatabaseName("grouper");
+        configuration.setUserName("midpoint");
+        configuration.setPassword(new GuardedString(password.toCharArray()));
+
+        return configuration;
+    }
+}
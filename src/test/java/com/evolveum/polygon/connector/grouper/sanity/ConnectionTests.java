@@ -16,6 +16,7 @@
 
 package com.evolveum.polygon.connector.grouper.sanity;
 
+import com.evolveum.polygon.connector.grouper.GrouperConnection;
 import com.evolveum.polygon.connector.grouper.util.CommonTestClass;
 import org.identityconnectors.common.logging.Log;
 import org.identityconnectors.framework.common.exceptions.ConfigurationException;
@@ -23,6 +24,10 @@ import org.identityconnectors.framework.common.exceptions.ConnectionFailedExcept
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
 public class ConnectionTests extends CommonTestClass {
     private static final Log LOG = Log.getLog(ConnectionTests.class);
     @Test()
@@ -54,4 +59,45 @@ public class ConnectionTests extends CommonTestClass {
         grouperConnector.init(grouperConfiguration);
         grouperConnector.test();
     }
+
+    @Test()
+    public void snapshotExportedOnceWhenJoined() throws SQLException {
+
+        GrouperConnection grouperConnection = new GrouperConnection(grouperConfiguration);
+        GrouperConnection readConnection = new GrouperConnection(grouperConfiguration);
+
+        try {
+            // No other connection is reading yet, the snapshot is not exported
+            Assert.assertNull(grouperConnection.exportSnapshot());
+
+            grouperConnection.beginSnapshot();
+            Assert.assertNull(grouperConnection.getSnapshot());
+
+            String snapshot = grouperConnection.exportSnapshot();
+            Assert.assertNotNull(snapshot);
+            Assert.assertEquals(grouperConnection.exportSnapshot(), snapshot);
+
+            readConnection.joinSnapshot(snapshot);
+            Assert.assertEquals(readConnection.getSnapshot(), snapshot);
+            Assert.assertEquals(currentSnapshot(readConnection), currentSnapshot(grouperConnection));
+
+            grouperConnection.endSnapshot();
+            Assert.assertNull(grouperConnection.getSnapshot());
+            Assert.assertNull(grouperConnection.exportSnapshot());
+        } finally {
+
+            readConnection.dispose();
+            grouperConnection.dispose();
+        }
+    }
+
+    private String currentSnapshot(GrouperConnection grouperConnection) throws SQLException {
+
+        try (Statement statement = grouperConnection.getConnection().createStatement();
+             ResultSet result = statement.executeQuery("SELECT txid_current_snapshot()::text")) {
+
+            result.next();
+            return result.getString(1);
+        }
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.util.FilterHandler;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.QueryBuilder;
+import com.evolveum.polygon.connector.grouper.util.ResourceQuery;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.Uid;
+import org.identityconnectors.framework.common.objects.filter.Filter;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+public class FilterHandlerTests {
+    private static final String TABLE = "gr_mp_subjects";
+    private static final String MEMBERSHIP_TABLE = "gr_mp_memberships";
+    private static final Map<String, Map<String, Class>> COLUMNS = Map.of(TABLE, Map.of(
+            "subject_id_index", Long.class,
+            "subject_id", String.class,
+            "description", String.class),
+            MEMBERSHIP_TABLE, Map.of(
+            "group_id_index", Long.class));
+
+    @Test()
+    public void nestedCompositeParameterOrder() {
+
+        Filter filter = FilterBuilder.and(
+                FilterBuilder.equalTo(AttributeBuilder.build("subject_id", "a")),
+                FilterBuilder.or(
+                        FilterBuilder.startsWith(AttributeBuilder.build("description", "b")),
+                        FilterBuilder.not(FilterBuilder.equalTo(AttributeBuilder.build(Uid.NAME, "3")))));
+
+        ResourceQuery query = translate(filter);
+
+        assertEquals("((NOT (" + TABLE + ".subject_id_index = ?)) OR (" + TABLE + ".description::TEXT LIKE ?))"
+                + " AND (" + TABLE + ".subject_id = ?)", query.getCurrentQuerySnippet());
+        assertEquals(List.of(3L, "b%", "a"), query.getParameters());
+    }
+
+    @Test()
+    public void notOfCompositeParameterOrder() {
+
+        Filter filter = FilterBuilder.not(FilterBuilder.and(
+                FilterBuilder.greaterThanOrEqualTo(AttributeBuilder.build(TABLE + ".subject_id_index", 10L)),
+                FilterBuilder.lessThan(AttributeBuilder.build(TABLE + ".subject_id_index", 20L))));
+
+        ResourceQuery query = translate(filter);
+
+        assertEquals("NOT (" + TABLE + ".subject_id_index < ? AND (" + TABLE + ".subject_id_index >= ?))",
+                query.getCurrentQuerySnippet());
+        assertEquals(List.of(20L, 10L), query.getParameters());
+    }
+
+    @Test()
+    public void siblingCompositesParameterOrder() {
+
+        Filter filter = FilterBuilder.or(
+                FilterBuilder.and(
+                        FilterBuilder.equalTo(AttributeBuilder.build("subject_id", "a")),
+                        FilterBuilder.equalTo(AttributeBuilder.build("description", "b"))),
+                FilterBuilder.and(
+                        FilterBuilder.equalTo(AttributeBuilder.build("subject_id", "c")),
+                        FilterBuilder.contains(AttributeBuilder.build("description", "d"))));
+
+        ResourceQuery query = translate(filter);
+        String snippet = query.getCurrentQuerySnippet();
+        List<Object> parameters = query.getParameters();
+
+        assertEquals(4, parameters.size());
+        assertEquals(List.of("%d%", "c", "b", "a"), parameters);
+        // Each placeholder is bound to the value of its own column
+        assertPlaceholderOrder(snippet, List.of(TABLE + ".description::TEXT LIKE ?", TABLE + ".subject_id = ?",
+                TABLE + ".description = ?", TABLE + ".subject_id = ?"));
+    }
+
+    @Test(expectedExceptions = ConnectorException.class)
+    public void nonNumericLongValue() {
+
+        translate(FilterBuilder.and(
+                FilterBuilder.equalTo(AttributeBuilder.build("subject_id", "a")),
+                FilterBuilder.equalTo(AttributeBuilder.build(Uid.NAME, "not-a-number"))));
+
+        fail();
+    }
+
+    @Test()
+    public void numericFilterOnBigintColumn() {
+
+        ResourceQuery query = translate(FilterBuilder.containsAllValues(AttributeBuilder.build("member_of", "87")));
+
+        assertEquals(MEMBERSHIP_TABLE + ".group_id_index = ?", query.getCurrentQuerySnippet());
+        assertEquals(List.of(87L), query.getParameters());
+    }
+
+    @Test()
+    public void parametersBoundWithTheirTypes() throws SQLException {
+        List<String> calls = new ArrayList<>();
+
+        QueryBuilder.bindParameters(recordingStatement(calls),
+                Arrays.asList(87L, "F", 20, new Long[]{1L, 2L}, new String[]{"subject"}));
+
+        assertEquals(List.of("setLong 1 87", "setString 2 F", "setInt 3 20", "createArrayOf bigint",
+                "setArray 4", "createArrayOf text", "setArray 5"), calls);
+    }
+
+    private ResourceQuery translate(Filter filter) {
+
+        return filter.accept(new FilterHandler(), new ResourceQuery(new ObjectClass(ObjectProcessing.SUBJECT_NAME),
+                COLUMNS));
+    }
+
+    private void assertPlaceholderOrder(String snippet, List<String> conditions) {
+        int position = -1;
+
+        for (String condition : conditions) {
+            int next = snippet.indexOf(condition, position + 1);
+
+            if (next <= position) {
+
+                fail("Condition " + condition + " not found after position " + position + " in: " + snippet);
+            }
+
+            position = next;
+        }
+    }
+
+    private PreparedStatement recordingStatement(List<String> calls) {
+        Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{Connection.class}, (proxy, method, args) -> {
+                    calls.add(method.getName() + " " + args[0]);
+                    return null;
+                });
+
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, (proxy, method, args) -> {
+
+                    if ("getConnection".equals(method.getName())) {
+
+                        return connection;
+                    }
+
+                    calls.add(method.getName() + " " + args[0] + (args[1] == null ? "" : " " + args[1]));
+                    return null;
+                });
+    }
+}
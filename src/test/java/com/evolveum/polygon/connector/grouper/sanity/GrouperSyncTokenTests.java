@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.util.GroupProcessing;
+import com.evolveum.polygon.connector.grouper.util.GrouperSyncToken;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.SubjectProcessing;
+import org.identityconnectors.framework.common.exceptions.InvalidAttributeValueException;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+public class GrouperSyncTokenTests {
+    private static final String GROUPS = "gr_mp_groups";
+    private static final String MEMBERSHIPS = "gr_mp_memberships";
+    private static final String SUBJECTS = "gr_mp_subjects";
+
+    @Test()
+    public void legacyLongToken() {
+        GrouperSyncToken token = GrouperSyncToken.parse(new SyncToken(1684824672269L));
+
+        assertFalse(token.hasCursor());
+        assertEquals(Long.valueOf(1684824672269L), token.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(1684824672269L), token.getWatermark(MEMBERSHIPS));
+        assertEquals(Long.valueOf(1684824672269L), token.getMinimalWatermark());
+    }
+
+    @Test()
+    public void legacyStringToken() {
+        GrouperSyncToken token = GrouperSyncToken.parse(new SyncToken("1684824672269"));
+
+        assertFalse(token.hasCursor());
+        assertEquals(Long.valueOf(1684824672269L), token.getWatermark(GROUPS));
+    }
+
+    @Test()
+    public void emptyToken() {
+        GrouperSyncToken token = GrouperSyncToken.parse(null);
+
+        assertFalse(token.hasCursor());
+        assertEquals(Long.valueOf(0L), token.getWatermark(GROUPS));
+    }
+
+    @Test()
+    public void compositeToken() {
+        String value = GROUPS + "=200;" + MEMBERSHIPS + "=100;timestamp=150;" + ObjectProcessing.GROUP_NAME + "=34";
+        GrouperSyncToken token = GrouperSyncToken.parse(new SyncToken(value));
+
+        assertTrue(token.hasCursor());
+        assertEquals(Long.valueOf(150L), token.getCursorTimestamp());
+        assertEquals(ObjectProcessing.GROUP_NAME, token.getCursorObjectClass());
+        assertEquals("34", token.getCursorIdentifier());
+        assertEquals(Long.valueOf(200L), token.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(100L), token.getWatermark(MEMBERSHIPS));
+        // A table not recorded in the token starts at the lowest watermark
+        assertEquals(Long.valueOf(100L), token.getWatermark("gr_mp_subjects"));
+        assertEquals(value, token.toString());
+        assertEquals(value, GrouperSyncToken.parse(token.toSyncToken()).toString());
+    }
+
+    @Test()
+    public void cursorOnlyToken() {
+        GrouperSyncToken token = GrouperSyncToken.parse(new SyncToken("timestamp=150;"
+                + ObjectProcessing.SUBJECT_NAME + "=87"));
+
+        assertTrue(token.hasCursor());
+        assertEquals(Long.valueOf(150L), token.getWatermark(GROUPS));
+    }
+
+    @Test(expectedExceptions = InvalidAttributeValueException.class)
+    public void malformedWatermark() {
+
+        GrouperSyncToken.parse(new SyncToken(GROUPS + "=abc"));
+    }
+
+    @Test(expectedExceptions = InvalidAttributeValueException.class)
+    public void malformedEntry() {
+
+        GrouperSyncToken.parse(new SyncToken(GROUPS + "=100;" + MEMBERSHIPS));
+    }
+
+    @Test(expectedExceptions = InvalidAttributeValueException.class)
+    public void malformedLegacyToken() {
+
+        GrouperSyncToken.parse(new SyncToken("yesterday"));
+    }
+
+    @Test()
+    public void advance() {
+        GrouperSyncToken token = GrouperSyncToken.of(Map.of(GROUPS, 100L, MEMBERSHIPS, 300L));
+
+        token.register(ObjectProcessing.GROUP_NAME, GROUPS);
+        token.register(ObjectProcessing.GROUP_NAME, MEMBERSHIPS);
+
+        SyncToken advanced = token.advance(200L, ObjectProcessing.GROUP_NAME, "34");
+
+        assertEquals(GROUPS + "=200;" + MEMBERSHIPS + "=300;timestamp=200;" + ObjectProcessing.GROUP_NAME + "=34",
+                advanced.getValue());
+
+        GrouperSyncToken parsed = GrouperSyncToken.parse(advanced);
+
+        assertEquals(Long.valueOf(200L), parsed.getWatermark(GROUPS));
+        // A watermark is never moved back
+        assertEquals(Long.valueOf(300L), parsed.getWatermark(MEMBERSHIPS));
+        assertEquals(Long.valueOf(200L), parsed.getCursorTimestamp());
+        assertEquals("34", parsed.getCursorIdentifier());
+
+        parsed.register(ObjectProcessing.SUBJECT_NAME, SUBJECTS);
+        parsed.advance(250L, ObjectProcessing.SUBJECT_NAME, "87");
+
+        assertEquals(Long.valueOf(200L), parsed.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(250L), parsed.getWatermark(SUBJECTS));
+        assertEquals(ObjectProcessing.SUBJECT_NAME, parsed.getCursorObjectClass());
+        assertEquals("87", parsed.getCursorIdentifier());
+    }
+
+    @Test()
+    public void advanceKeepsWatermarksOfOtherTables() {
+        GrouperSyncToken token = GrouperSyncToken.of(Map.of(GROUPS, 100L, SUBJECTS, 50L));
+
+        token.register(ObjectProcessing.GROUP_NAME, GROUPS);
+        token.register(ObjectProcessing.SUBJECT_NAME, SUBJECTS);
+
+        token.advance(80L, ObjectProcessing.SUBJECT_NAME, "87");
+
+        assertEquals(Long.valueOf(100L), token.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(80L), token.getWatermark(SUBJECTS));
+
+        token.advance(200L, ObjectProcessing.GROUP_NAME, "34");
+
+        // The subject changes following the time stamp 80 may not be handled yet
+        assertEquals(Long.valueOf(200L), token.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(80L), token.getWatermark(SUBJECTS));
+
+        // Both queries are drained, so no change of any of the tables precedes the last handled change
+        assertTrue(token.drain());
+        assertEquals(Long.valueOf(200L), token.getWatermark(GROUPS));
+        assertEquals(Long.valueOf(200L), token.getWatermark(SUBJECTS));
+        assertFalse(token.drain());
+    }
+
+    @Test()
+    public void register() {
+        GrouperSyncToken token = GrouperSyncToken.parse(new SyncToken(GROUPS + "=200;" + MEMBERSHIPS + "=100"));
+
+        token.register(ObjectProcessing.SUBJECT_NAME, SUBJECTS);
+        token.register(ObjectProcessing.GROUP_NAME, GROUPS);
+
+        assertEquals(Long.valueOf(100L), token.getWatermark(SUBJECTS));
+        assertEquals(Long.valueOf(200L), token.getWatermark(GROUPS));
+        assertNull(token.getCursorObjectClass());
+    }
+
+    @Test()
+    public void membershipWatermarkPerObjectClass() {
+        GrouperConfiguration configuration = new GrouperConfiguration();
+
+        // Both object classes scan the membership table, each of them up to its own watermark
+        assertEquals(Map.of(GROUPS, GROUPS, MEMBERSHIPS + ".group_id_index", MEMBERSHIPS,
+                        "gr_mp_group_attributes", "gr_mp_group_attributes"),
+                new GroupProcessing(configuration).getWatermarkTables());
+        assertEquals(Map.of(SUBJECTS, SUBJECTS, MEMBERSHIPS + ".subject_id_index", MEMBERSHIPS,
+                        "gr_mp_subject_attributes", "gr_mp_subject_attributes"),
+                new SubjectProcessing(configuration).getWatermarkTables());
+    }
+}
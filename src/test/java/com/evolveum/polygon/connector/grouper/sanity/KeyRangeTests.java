@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class KeyRangeTests {
+
+    @Test()
+    public void evenSplit() {
+
+        assertEquals(List.of("1-25", "26-50", "51-75", "76-100"), split(1, 100, 4));
+    }
+
+    @Test()
+    public void lastRangeNarrower() {
+
+        assertEquals(List.of("0-3", "4-7", "8-10"), split(0, 10, 3));
+    }
+
+    @Test()
+    public void singleKey() {
+
+        assertEquals(List.of("7-7"), split(7, 7, 4));
+    }
+
+    @Test()
+    public void fewerKeysThanRanges() {
+
+        assertEquals(List.of("1-1", "2-2", "3-3"), split(1, 3, 8));
+    }
+
+    @Test()
+    public void singleRange() {
+
+        assertEquals(List.of("5-9"), split(5, 9, 1));
+    }
+
+    @Test()
+    public void nearMaximalKey() {
+
+        assertEquals(List.of((Long.MAX_VALUE - 3) + "-" + (Long.MAX_VALUE - 2),
+                        (Long.MAX_VALUE - 1) + "-" + Long.MAX_VALUE),
+                split(Long.MAX_VALUE - 3, Long.MAX_VALUE, 2));
+        assertEquals(List.of(Long.MAX_VALUE + "-" + Long.MAX_VALUE), split(Long.MAX_VALUE, Long.MAX_VALUE, 3));
+    }
+
+    @Test()
+    public void spanExceedingLongRange() {
+
+        // The span between the minimal and the maximal key overflows a signed long
+        assertEquals(List.of(Long.MIN_VALUE + "--1", "0-" + Long.MAX_VALUE),
+                split(Long.MIN_VALUE, Long.MAX_VALUE, 2));
+        assertEquals(List.of("-5-" + (Long.MAX_VALUE / 2 - 2), (Long.MAX_VALUE / 2 - 1) + "-" + Long.MAX_VALUE),
+                split(-5, Long.MAX_VALUE, 2));
+        assertEquals(1, ObjectProcessing.splitKeyRange(Long.MIN_VALUE, Long.MAX_VALUE, 1).size());
+        assertEquals(7, ObjectProcessing.splitKeyRange(Long.MIN_VALUE, Long.MAX_VALUE, 7).size());
+    }
+
+    @Test()
+    public void noKeys() {
+
+        assertEquals(List.of(), split(10, 1, 4));
+    }
+
+    private List<String> split(long min, long max, int parts) {
+        List<String> ranges = new ArrayList<>();
+
+        for (long[] range : ObjectProcessing.splitKeyRange(min, max, parts)) {
+
+            ranges.add(range[0] + "-" + range[1]);
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.QueryBuilder;
+import org.identityconnectors.framework.common.objects.AttributeBuilder;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.filter.FilterBuilder;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+public class QueryBuilderTests {
+    private static final String TABLE = "gr_mp_subjects";
+    private static final Map<String, Map<String, Class>> COLUMNS = Map.of(TABLE, Map.of(
+            "subject_id_index", Long.class,
+            "subject_id", String.class,
+            "description", String.class));
+
+    @Test()
+    public void copyBuildsSameQuery() {
+
+        QueryBuilder queryBuilder = keysetQuery();
+        QueryBuilder copy = queryBuilder.copy();
+
+        assertEquals(queryBuilder.build(), copy.build());
+        assertEquals(queryBuilder.getParameters(), copy.getParameters());
+    }
+
+    @Test()
+    public void copyKeysetMovedIndependently() {
+
+        QueryBuilder queryBuilder = keysetQuery();
+        QueryBuilder copy = queryBuilder.copy();
+
+        // The prefetched page moves the keyset of its copy only
+        copy.setKeyset(null, "9");
+        copy.setPageSize(4);
+        String query = queryBuilder.build();
+
+        assertEquals(List.of(5L, "a", 2), queryBuilder.getParameters());
+        assertEquals(query, copy.build());
+        assertEquals(List.of(9L, "a", 4), copy.getParameters());
+    }
+
+    private QueryBuilder keysetQuery() {
+
+        QueryBuilder queryBuilder = new QueryBuilder(new ObjectClass(ObjectProcessing.SUBJECT_NAME),
+                FilterBuilder.equalTo(AttributeBuilder.build("subject_id", "a")), COLUMNS, TABLE, null);
+
+        queryBuilder.setUseFullAlias(true);
+        queryBuilder.setPageSize(2);
+        queryBuilder.setKeysetPaging(true);
+        queryBuilder.setKeyset(null, "5");
+
+        return queryBuilder;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2010-2023 Evolveum
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.evolveum.polygon.connector.grouper.sanity;
+
+import com.evolveum.polygon.connector.grouper.GrouperConfiguration;
+import com.evolveum.polygon.connector.grouper.util.GrouperObject;
+import com.evolveum.polygon.connector.grouper.util.ObjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.QueryBuilder;
+import com.evolveum.polygon.connector.grouper.util.SubjectProcessing;
+import com.evolveum.polygon.connector.grouper.util.SyncCursor;
+import org.identityconnectors.common.logging.Log;
+import org.identityconnectors.framework.common.exceptions.ConnectorException;
+import org.identityconnectors.framework.common.objects.ObjectClass;
+import org.identityconnectors.framework.common.objects.OperationOptions;
+import org.identityconnectors.framework.common.objects.SyncResultsHandler;
+import org.identityconnectors.framework.common.objects.SyncToken;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+public class SyncCursorTests {
+
+    private static final Log LOG = Log.getLog(SyncCursorTests.class);
+    private static final ObjectClass GROUP = new ObjectClass(ObjectProcessing.GROUP_NAME);
+    private static final ObjectClass SUBJECT = new ObjectClass(ObjectProcessing.SUBJECT_NAME);
+    private static final List<String> EXPECTED_ORDER = List.of("group:3", "subject:9", "subject:10", "group:4",
+            "subject:11", "subject:1");
+
+    @Test()
+    public void mergeOrder() {
+        List<String> delivered = new ArrayList<>();
+
+        SyncCursor.merge(cursors(delivered, Integer.MAX_VALUE, false), null);
+
+        assertEquals(EXPECTED_ORDER, delivered);
+    }
+
+    @Test()
+    public void mergeOrderReadAhead() {
+        List<String> delivered = new ArrayList<>();
+        List<SyncCursor> cursors = cursors(delivered, Integer.MAX_VALUE, true);
+
+        try {
+            SyncCursor.merge(cursors, null);
+        } finally {
+
+            close(cursors);
+        }
+
+        assertEquals(EXPECTED_ORDER, delivered);
+        assertFalse(isReadAheadRunning());
+    }
+
+    @Test()
+    public void mergeStopsWhenRefused() {
+        List<String> delivered = new ArrayList<>();
+
+        SyncCursor.merge(cursors(delivered, 2, false), null);
+
+        assertEquals(EXPECTED_ORDER.subList(0, 2), delivered);
+    }
+
+    @Test()
+    public void earlyCloseOfReadAhead() {
+        List<String> delivered = new ArrayList<>();
+        List<GrouperObject> changes = new ArrayList<>();
+
+        // More changes than the read ahead queue holds, so the read ahead thread is blocked on the full queue
+        for (int i = 0; i < 5000; i++) {
+
+            changes.add(change(SUBJECT, String.valueOf(i), i));
+        }
+
+        SyncCursor cursor = cursor(new InMemoryProcessing(changes, delivered, 1), true);
+
+        try {
+            SyncCursor.merge(List.of(cursor), null);
+        } finally {
+
+            cursor.close();
+        }
+
+        assertEquals(List.of("subject:0"), delivered);
+        assertFalse(isReadAheadRunning());
+    }
+
+    @Test(expectedExceptions = ConnectorException.class)
+    public void readAheadFailure() {
+        InMemoryProcessing processing = new InMemoryProcessing(null, new ArrayList<>(), Integer.MAX_VALUE);
+        SyncCursor cursor = cursor(processing, true);
+
+        try {
+            SyncCursor.merge(List.of(cursor), null);
+        } finally {
+
+            cursor.close();
+        }
+    }
+
+    private List<SyncCursor> cursors(List<String> delivered, int limit, boolean readAhead) {
+
+        return List.of(
+                cursor(new InMemoryProcessing(List.of(change(GROUP, "3", 100), change(GROUP, "4", 250)),
+                        delivered, limit), readAhead),
+                cursor(new InMemoryProcessing(List.of(change(SUBJECT, "9", 100), change(SUBJECT, "11", 250)),
+                        delivered, limit), readAhead),
+                // Numeric order of the identifiers, "10" is lexically lower than "9"
+                cursor(new InMemoryProcessing(List.of(change(SUBJECT, "10", 100), change(SUBJECT, "1", 300)),
+                        delivered, limit), readAhead));
+    }
+
+    private SyncCursor cursor(InMemoryProcessing processing, boolean readAhead) {
+        SyncCursor cursor = new SyncCursor(processing, new QueryBuilder(SUBJECT, "gr_mp_subjects", null), null,
+                null, null, null, false);
+
+        if (readAhead) {
+
+            cursor.startReadAhead();
+        }
+
+        return cursor;
+    }
+
+    private void close(List<SyncCursor> cursors) {
+
+        for (SyncCursor cursor : cursors) {
+
+            cursor.close();
+        }
+    }
+
+    private boolean isReadAheadRunning() {
+
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().startsWith("grouper-sync-cursor-") && thread.isAlive());
+    }
+
+    private GrouperObject change(ObjectClass objectClass, String identifier, long timestamp) {
+        GrouperObject grouperObject = new GrouperObject();
+
+        grouperObject.setObjectClass(objectClass);
+        grouperObject.setIdentifier(identifier);
+        grouperObject.setLatestTimestamp(timestamp);
+
+        return grouperObject;
+    }
+
+    /**
+     * Processing returning the changes from memory as a single page and recording the handled changes.
+     */
+    private static class InMemoryProcessing extends SubjectProcessing {
+        private final List<GrouperObject> changes;
+        private final List<String> delivered;
+        private final int limit;
+
+        InMemoryProcessing(List<GrouperObject> changes, List<String> delivered, int limit) {
+            super(new GrouperConfiguration());
+            this.changes = changes;
+            this.delivered = delivered;
+            this.limit = limit;
+        }
+
+        @Override
+        public LinkedHashMap<String, GrouperObject> sync(SyncToken syncToken, OperationOptions operationOptions,
+                                                         Connection connection, QueryBuilder queryBuilder,
+                                                         boolean isAllObjectClass) {
+
+            if (changes == null) {
+
+                throw new ConnectorException("Reading of the changes failed.");
+            }
+
+            LinkedHashMap<String, GrouperObject> page = new LinkedHashMap<>();
+
+            for (GrouperObject change : changes) {
+
+                page.put(change.getIdentifier(), change);
+            }
+
+            return page;
+        }
+
+        @Override
+        public boolean sync(SyncResultsHandler syncResultsHandler, ObjectClass objectClass,
+                            GrouperObject grouperObject) {
+
+            synchronized (delivered) {
+                LOG.ok("Handling the change {0} of {1}", grouperObject.getIdentifier(), objectClass);
+
+                delivered.add(objectClass.getObjectClassValue() + ":" + grouperObject.getIdentifier());
+                return delivered.size() < limit;
+            }
+        }
+    }
+}